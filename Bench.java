@@ -0,0 +1,467 @@
+/*
+ * Bench.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+// JDK の文字コードとこのプロジェクトのエンコード・デコードの比較 (結果は JSON)。
+class Bench {
+
+    static final String[] OPERATIONS = {"encode", "decode"};
+
+    // 1回の処理の文字数。
+    static final int CHUNK = 4096;
+
+    static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // 最適化で処理が省かれないように結果を足し込む。
+    static volatile long sink;
+
+    final Corpus corpus;
+    final long seed;
+    final int length;
+    final int warmup;
+    final int rounds;
+
+    Bench(Corpus corpus, long seed, int length, int warmup, int rounds) {
+        this.corpus = corpus;
+        this.seed = seed;
+        this.length = length;
+        this.warmup = warmup;
+        this.rounds = rounds;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String[] profiles = Corpus.PROFILE_NAMES;
+        long seed = 1;
+        int length = 500000;
+        int warmup = 10;
+        int rounds = 5;
+        String out = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("-profiles".equals(args[i])) {
+                profiles = args[i + 1].split(",");
+            } else if ("-seed".equals(args[i])) {
+                seed = Long.parseLong(args[i + 1]);
+            } else if ("-size".equals(args[i])) {
+                length = Integer.parseInt(args[i + 1]);
+            } else if ("-warmup".equals(args[i])) {
+                warmup = Integer.parseInt(args[i + 1]);
+            } else if ("-rounds".equals(args[i])) {
+                rounds = Integer.parseInt(args[i + 1]);
+            } else if ("-out".equals(args[i])) {
+                out = args[i + 1];
+            } else {
+                throw new IllegalArgumentException("option: " + args[i]);
+            }
+        }
+
+        Corpus corpus = new Corpus(CharTable.load());
+        Bench bench = new Bench(corpus, seed, length, warmup, rounds);
+        Json json = new Json();
+        json.begin('{');
+        json.field("java", System.getProperty("java.version"));
+        json.field("seed", seed);
+        json.field("size", length);
+        json.field("chunk", CHUNK);
+        json.field("rounds", rounds);
+        json.key("results").begin('[');
+        for (String profile : profiles) {
+            bench.run(profile, json);
+        }
+        json.end(']');
+        json.key("tries").begin('[');
+        bench.tries(profiles[0], json);
+        json.end(']');
+        json.end('}');
+
+        if (out == null) {
+            System.out.println(json);
+        } else {
+            Files.write(Paths.get(out), json.toString().getBytes(UTF_8));
+        }
+    }
+
+    // 比較する実装。
+    abstract static class Target {
+
+        final String name;
+        final Charset charset;
+
+        Target(String name, Charset charset) {
+            this.name = name;
+            this.charset = charset;
+        }
+
+        // エンコードしたバイト数を返す。
+        abstract int encode(String s);
+
+        // デコードした文字数を返す。
+        abstract int decode(byte[] b);
+
+    }
+
+    static List<Target> targets(Charset charset) {
+        List<Target> targets = new ArrayList<>();
+        targets.add(new Target("jdk", charset) {
+            @Override
+            int encode(String s) {
+                return s.getBytes(charset).length;
+            }
+            @Override
+            int decode(byte[] b) {
+                return new String(b, charset).length();
+            }
+        });
+        targets.add(new Target("codecs", charset) {
+            @Override
+            int encode(String s) {
+                return Codecs.get().encodeToBuffer(s, charset).remaining();
+            }
+            @Override
+            int decode(byte[] b) {
+                return Codecs.get().decodeToBuffer(b, 0, b.length, charset).remaining();
+            }
+        });
+        if (charset.equals(Windows31jCodec.WINDOWS_31J)) {
+            Windows31jCodec codec = new Windows31jCodec();
+            targets.add(new Target("Windows31jCodec", charset) {
+                char[] chars = new char[codec.maxDecodedLength(CHUNK * 2)];
+                byte[] bytes = new byte[codec.maxEncodedLength(CHUNK)];
+                @Override
+                int encode(String s) {
+                    s.getChars(0, s.length(), chars, 0);
+                    return codec.encode(chars, 0, s.length(), bytes, 0);
+                }
+                @Override
+                int decode(byte[] b) {
+                    return codec.decode(b, 0, b.length, chars, 0);
+                }
+            });
+        }
+        if (charset.equals(Windows31jCodec.WINDOWS_31J)) {
+            // Reader/Writer (バッファーの大きさは InputStreamReader と同じ 8192 バイト)。
+            targets.add(new Target("jdk-stream", charset) {
+                char[] chars = new char[CHUNK];
+                @Override
+                int encode(String s) {
+                    Sink sink = new Sink();
+                    writeTo(new OutputStreamWriter(sink, charset), s);
+                    return sink.count;
+                }
+                @Override
+                int decode(byte[] b) {
+                    return readFrom(new InputStreamReader(new ByteArrayInputStream(b), charset), chars);
+                }
+            });
+            Windows31jCodec codec = new Windows31jCodec();
+            targets.add(new Target("Windows31jStream", charset) {
+                char[] chars = new char[CHUNK];
+                @Override
+                int encode(String s) {
+                    Sink sink = new Sink();
+                    writeTo(new Windows31jWriter(sink, codec, 8192), s);
+                    return sink.count;
+                }
+                @Override
+                int decode(byte[] b) {
+                    return readFrom(new Windows31jReader(new ByteArrayInputStream(b), codec, 8192), chars);
+                }
+            });
+        }
+        if (charset.equals(JisX0213Codec.SHIFT_JIS_2004)) {
+            JisX0213Codec codec = new JisX0213Codec();
+            targets.add(new Target("JisX0213Codec", charset) {
+                char[] chars = new char[codec.maxDecodedLength(CHUNK * 2)];
+                byte[] bytes = new byte[codec.maxEncodedLength(CHUNK)];
+                @Override
+                int encode(String s) {
+                    s.getChars(0, s.length(), chars, 0);
+                    return codec.encode(chars, 0, s.length(), bytes, 0);
+                }
+                @Override
+                int decode(byte[] b) {
+                    return codec.decode(b, 0, b.length, chars, 0);
+                }
+            });
+        }
+        return targets;
+    }
+
+    // 書き込んだバイト数を数える OutputStream。
+    static class Sink extends OutputStream {
+
+        int count;
+
+        @Override
+        public void write(int b) {
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+    }
+
+    static void writeTo(Writer writer, String s) {
+        try (Writer w = writer) {
+            w.write(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static int readFrom(Reader reader, char[] chars) {
+        int total = 0;
+        try (Reader r = reader) {
+            int n;
+            while ((n = r.read(chars, 0, chars.length)) >= 0) {
+                total += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return total;
+    }
+
+    void run(String profile, Json json) {
+        int[] sequence = corpus.generate(Corpus.profile(profile), seed, length);
+        for (int column = 0; column < CharTable.CODE_COLUMNS; ++column) {
+            Charset charset = CharTable.charset(column);
+            String[] chunks = chunks(corpus.text(sequence, column));
+            byte[][] encoded = new byte[chunks.length][];
+            for (int i = 0; i < chunks.length; ++i) {
+                encoded[i] = chunks[i].getBytes(charset);
+            }
+            for (Target target : targets(charset)) {
+                for (String operation : OPERATIONS) {
+                    Result result = measure(target, operation, chunks, encoded);
+                    json.begin('{');
+                    json.field("profile", profile);
+                    json.field("charset", charset.name());
+                    json.field("impl", target.name);
+                    json.field("op", operation);
+                    result.write(json);
+                    json.end('}');
+                    System.err.printf("%-7s %-12s %-16s %-7s %8.1f MB/s%n",
+                            profile, charset.name(), target.name, operation, result.mbPerSec());
+                }
+            }
+        }
+    }
+
+    // 文字列を CHUNK 文字ずつに分ける (サロゲートペアは分けない)。
+    static String[] chunks(String s) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < s.length()) {
+            int end = Math.min(start + CHUNK, s.length());
+            if (end < s.length() && Character.isLowSurrogate(s.charAt(end))) {
+                --end;
+            }
+            chunks.add(s.substring(start, end));
+            start = end;
+        }
+        return chunks.toArray(new String[0]);
+    }
+
+    Result measure(Target target, String operation, String[] chunks, byte[][] encoded) {
+        boolean encode = "encode".equals(operation);
+        for (int round = 0; round < warmup; ++round) {
+            pass(target, encode, chunks, encoded, null, 0);
+        }
+        long[] latencies = new long[chunks.length * rounds];
+        long thread = Thread.currentThread().getId();
+        long allocated = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; ++round) {
+            pass(target, encode, chunks, encoded, latencies, round * chunks.length);
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = THREADS.getThreadAllocatedBytes(thread) - allocated;
+
+        long bytes = 0;
+        long chars = 0;
+        for (int i = 0; i < chunks.length; ++i) {
+            bytes += encoded[i].length;
+            chars += chunks[i].length();
+        }
+        Arrays.sort(latencies);
+        return new Result(bytes * rounds, chars * rounds, latencies.length, elapsed, allocated,
+                percentile(latencies, 50), percentile(latencies, 99));
+    }
+
+    static void pass(Target target, boolean encode, String[] chunks, byte[][] encoded,
+            long[] latencies, int offset) {
+        long sum = 0;
+        for (int i = 0; i < chunks.length; ++i) {
+            long start = System.nanoTime();
+            sum += encode ? target.encode(chunks[i]) : target.decode(encoded[i]);
+            if (latencies != null) {
+                latencies[offset + i] = System.nanoTime() - start;
+            }
+        }
+        sink += sum;
+    }
+
+    static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) ((long) sorted.length * p / 100))];
+    }
+
+    // 符号を引くトライの大きさと検索時間 (profile の文章の文字を引く)。
+    void tries(String profile, Json json) {
+        String text = corpus.text(corpus.generate(Corpus.profile(profile), seed, length), Corpus.UNICODE);
+        int[] cps = text.codePoints().toArray();
+        String[] names = {"Windows31jCodec", "JisX0213Codec"};
+        CodeTrie[] tries = {Windows31jCodec.ENCODE_TRIE, JisX0213Codec.ENCODE_TRIE};
+        for (int i = 0; i < tries.length; ++i) {
+            CodeTrie trie = tries[i];
+            long elapsed = 0;
+            for (int round = 0; round < warmup + rounds; ++round) {
+                long sum = 0;
+                long start = System.nanoTime();
+                for (int cp : cps) {
+                    sum += trie.get(cp);
+                }
+                if (round >= warmup) {
+                    elapsed += System.nanoTime() - start;
+                }
+                sink += sum;
+            }
+            json.begin('{');
+            json.field("name", names[i]);
+            json.field("bytes", trie.byteSize());
+            json.field("lookupNanos", (double) elapsed / ((long) cps.length * rounds));
+            json.end('}');
+        }
+    }
+
+    static class Result {
+
+        final long bytes;
+        final long chars;
+        final long operations;
+        final long nanos;
+        final long allocated;
+        final long p50;
+        final long p99;
+
+        Result(long bytes, long chars, long operations, long nanos, long allocated, long p50, long p99) {
+            this.bytes = bytes;
+            this.chars = chars;
+            this.operations = operations;
+            this.nanos = nanos;
+            this.allocated = allocated;
+            this.p50 = p50;
+            this.p99 = p99;
+        }
+
+        // バイト列側の大きさで数える。
+        double mbPerSec() {
+            return (nanos == 0) ? 0 : bytes * 1000.0 / nanos;
+        }
+
+        void write(Json json) {
+            json.field("bytes", bytes);
+            json.field("chars", chars);
+            json.field("operations", operations);
+            json.field("nanos", nanos);
+            json.field("mbPerSec", mbPerSec());
+            json.field("allocBytesPerOp", (operations == 0) ? 0 : (double) allocated / operations);
+            json.field("allocMbPerSec", (nanos == 0) ? 0 : allocated * 1000.0 / nanos);
+            json.field("p50Nanos", p50);
+            json.field("p99Nanos", p99);
+        }
+
+    }
+
+    // JSON の組み立て (区切りのカンマは自動で入れる)。
+    static class Json {
+
+        final StringBuilder sb = new StringBuilder();
+        boolean first = true;
+
+        Json begin(char c) {
+            separate();
+            sb.append(c);
+            first = true;
+            return this;
+        }
+
+        Json end(char c) {
+            sb.append(c);
+            first = false;
+            return this;
+        }
+
+        Json key(String key) {
+            separate();
+            string(key);
+            sb.append(':');
+            first = true;
+            return this;
+        }
+
+        Json field(String key, String value) {
+            key(key);
+            first = false;
+            string(value);
+            return this;
+        }
+
+        Json field(String key, long value) {
+            key(key);
+            first = false;
+            sb.append(value);
+            return this;
+        }
+
+        Json field(String key, double value) {
+            key(key);
+            first = false;
+            sb.append(String.format(Locale.ROOT, "%.3f", value));
+            return this;
+        }
+
+        void separate() {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+        }
+
+        void string(String s) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); ++i) {
+                char c = s.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+
+    }
+
+}
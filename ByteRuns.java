@@ -0,0 +1,48 @@
+/*
+ * ByteRuns.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import java.lang.invoke.*;
+import java.nio.*;
+
+// 1バイト文字の連続の終了位置を 8バイトずつ (long 単位で) 判定する。
+class ByteRuns {
+
+    static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static final long HIGH_BITS = 0x8080808080808080L;
+    static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    // 下位7ビットが 0x21 以上・0x60 以上のとき最上位ビットが立つ加数。
+    static final long ADD_21 = 0x5F5F5F5F5F5F5F5FL;
+    static final long ADD_60 = 0x2020202020202020L;
+
+    // src[i] から始まる Shift_JIS の1バイト文字 (00〜7F、A1〜DF) の連続の終了位置。
+    static int sjisSingleByteEnd(byte[] src, int i, int end) {
+        for (; i + 8 <= end; i += 8) {
+            long other = otherBytes((long) LONGS.get(src, i));
+            if (other != 0) {
+                return i + (Long.numberOfTrailingZeros(other) >>> 3);
+            }
+        }
+        for (; i < end; ++i) {
+            if (!isSjisSingleByte(src[i] & 0xFF)) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // 00〜7F、A1〜DF 以外のバイトの最上位ビットだけを立てる。
+    // 下位7ビットの加算は桁上がりしないので、バイトごとに独立して判定できる。
+    static long otherBytes(long x) {
+        long low = x & LOW_BITS;
+        long kana = (low + ADD_21) & ~(low + ADD_60);
+        return x & ~kana & HIGH_BITS;
+    }
+
+    static boolean isSjisSingleByte(int b) {
+        return b < 0x80 || (0xA1 <= b && b <= 0xDF);
+    }
+
+}
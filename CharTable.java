@@ -0,0 +1,407 @@
+/*
+ * CharTable.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+// 文字コード表 (列ごとの配列)。
+class CharTable {
+
+    // 符号の列。
+    static final int JIS = 0;
+    static final int EUC = 1;
+    static final int SJIS = 2;
+    static final int SJIS_2004 = 3;
+    static final int W31J = 4;
+    static final int I942 = 5;
+    static final int I943 = 6;
+    static final int I930 = 7;
+    static final int I939 = 8;
+    static final int CODE_COLUMNS = 9;
+
+    static final String[] CODE_NAMES = {
+        "JIS", "EUC", "SJIS", "2004", "W31J", "I942", "I943", "I930", "I939"
+    };
+
+    // 符号の列の文字コード (Charsets の定数と同じ)。
+    static final String[] CODE_CHARSET_NAMES = {
+        "ISO-2022-JP-2", "EUC-JP", "Shift_JIS", "x-SJIS_0213",
+        "Windows-31J", "x-IBM942", "x-IBM943", "x-IBM930", "x-IBM939"
+    };
+
+    // 文字列の列。
+    static final int VALUE = 0;
+    static final int NFC = 1;
+    static final int NFKC = 2;
+    static final int NFD = 3;
+    static final int VARIANT = 4;
+    static final int STRING_COLUMNS = 5;
+
+    // 符号の値: 種別 << 28 | バイト数 << 24 | 符号 (エンコードできない場合は NONE)。
+    // 種別は JIS では指示 (jisToHexString と同じ番号)、EBCDIC では漢字 (SO〜SI) のとき 1。
+    static final int NONE = 0;
+
+    // 文字列の値: 開始位置 << 8 | 長さ (なしは ABSENT)。
+    static final int ABSENT = -1;
+
+    // 行の元の表。
+    static final int X0201 = 1;
+    static final int X0208 = 2;
+    static final int X0213 = 3;
+    static final int X0212 = 4;
+
+    // 区分: 往復変換できる列 (48〜56) | 位置 (32〜47) | 元の表 (24〜31) | 詳細区分 (0〜23)。
+    // 位置は JIS X 0201 ではバイト値、それ以外は 面 << 14 | 区 << 7 | 点。
+    static final int SOURCE_SHIFT = 24;
+    static final int POSITION_SHIFT = 32;
+    static final int DECODABLE_SHIFT = 48;
+
+    final int size;
+    final int[][] codes;
+    final int[][] strings;
+    final long[] kinds;
+    final char[] pool;
+
+    CharTable(int size, int[][] codes, int[][] strings, long[] kinds, char[] pool) {
+        this.size = size;
+        this.codes = codes;
+        this.strings = strings;
+        this.kinds = kinds;
+        this.pool = pool;
+    }
+
+    // 生成済みの表があればそれを使う (load と同じ)。
+    public static void main(String[] args) throws IOException {
+        CharTable table = load();
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        out.printf("行数:         %d%n", table.size);
+        out.printf("UTF-16:       %d%n", table.pool.length);
+        out.printf("使用量 (概算): %d バイト%n", table.byteSize());
+
+        // Windows-31J へのエンコードのみ可 (往復変換できない) 文字。
+        int n = 0;
+        Cursor cursor = table.cursor();
+        while (cursor.next()) {
+            if (cursor.code(W31J) != NONE && !cursor.decodable(W31J)) {
+                ++n;
+            }
+        }
+        out.printf("W31J 片方向:  %d%n", n);
+    }
+
+    // 共有する表 (初めて使うときに一度だけ load する)。
+    // 作った後は変更しないため、スレッドごとに Cursor を作れば同時に引ける。
+    static CharTable get() {
+        return Holder.TABLE;
+    }
+
+    static class Holder {
+
+        static final CharTable TABLE = load();
+
+    }
+
+    // 生成済みの表 (TableGenerator) があれば使い、なければ JDK の文字コードから作る。
+    static CharTable load() {
+        CharTable table = TableGenerator.read();
+        return (table != null) ? table : build(new Charsets(new String[0]));
+    }
+
+    static CharTable build(Charsets charsets) {
+        Builder builder = new Builder();
+        charsets.forEachRow(builder::add);
+        return builder.build();
+    }
+
+    int size() {
+        return size;
+    }
+
+    static Charset charset(int column) {
+        return Charset.forName(CODE_CHARSET_NAMES[column]);
+    }
+
+    // 配列の大きさの合計 (ヘッダーを除く)。
+    long byteSize() {
+        return (long) CODE_COLUMNS * size * 4 + (long) STRING_COLUMNS * size * 4
+                + (long) size * 8 + (long) pool.length * 2;
+    }
+
+    int[] column(int column) {
+        return codes[column];
+    }
+
+    long[] kinds() {
+        return kinds;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    static int kubun(long kind) {
+        return (int) (kind & 0xFFFFFF);
+    }
+
+    static int source(long kind) {
+        return (int) (kind >>> SOURCE_SHIFT) & 0xFF;
+    }
+
+    static int position(long kind) {
+        return (int) (kind >>> POSITION_SHIFT) & 0xFFFF;
+    }
+
+    static boolean decodable(long kind, int column) {
+        return (kind & (1L << (DECODABLE_SHIFT + column))) != 0;
+    }
+
+    static int type(int code) {
+        return code >>> 28;
+    }
+
+    static int length(int code) {
+        return (code >>> 24) & 0xF;
+    }
+
+    // 符号を16進数で表す (エンコードできない場合は "-")。
+    static String toHexString(int code) {
+        if (code == NONE) {
+            return "-";
+        }
+        return String.format("%0" + (length(code) * 2) + "X", code & 0xFFFFFF);
+    }
+
+    // 行の位置を順に動かして各列を読む。
+    class Cursor {
+
+        int row = -1;
+
+        boolean next() {
+            return ++row < size;
+        }
+
+        void moveTo(int row) {
+            if (row < 0 || size <= row) {
+                throw new IndexOutOfBoundsException("row: " + row);
+            }
+            this.row = row;
+        }
+
+        int row() {
+            return row;
+        }
+
+        int code(int column) {
+            return codes[column][row];
+        }
+
+        long kind() {
+            return kinds[row];
+        }
+
+        int kubun() {
+            return CharTable.kubun(kinds[row]);
+        }
+
+        int source() {
+            return CharTable.source(kinds[row]);
+        }
+
+        int position() {
+            return CharTable.position(kinds[row]);
+        }
+
+        boolean decodable(int column) {
+            return CharTable.decodable(kinds[row], column);
+        }
+
+        int codePoint() {
+            int ref = strings[VALUE][row];
+            return Character.codePointAt(pool, ref >>> 8);
+        }
+
+        boolean has(int column) {
+            return strings[column][row] != ABSENT;
+        }
+
+        // 文字列を dst に書き込み、書き込んだ文字数を返す。
+        int getChars(int column, char[] dst, int dpos) {
+            int ref = strings[column][row];
+            if (ref == ABSENT) {
+                return 0;
+            }
+            int len = ref & 0xFF;
+            System.arraycopy(pool, ref >>> 8, dst, dpos, len);
+            return len;
+        }
+
+        String string(int column) {
+            int ref = strings[column][row];
+            return (ref == ABSENT) ? null : new String(pool, ref >>> 8, ref & 0xFF);
+        }
+
+    }
+
+    static class Builder {
+
+        int size;
+        int[][] codes = new int[CODE_COLUMNS][1024];
+        int[][] strings = new int[STRING_COLUMNS][1024];
+        long[] kinds = new long[1024];
+        StringBuilder pool = new StringBuilder();
+
+        void add(Charsets.CodeInfo info) {
+            if (kinds.length == size) {
+                for (int i = 0; i < CODE_COLUMNS; ++i) {
+                    codes[i] = Arrays.copyOf(codes[i], size * 2);
+                }
+                for (int i = 0; i < STRING_COLUMNS; ++i) {
+                    strings[i] = Arrays.copyOf(strings[i], size * 2);
+                }
+                kinds = Arrays.copyOf(kinds, size * 2);
+            }
+
+            codes[JIS][size] = info.encodableToJis2() ? jisCode(Charsets.jisToHexString(info.bj2())) : NONE;
+            codes[EUC][size] = code(info, info.be2(), 0x3F);
+            codes[SJIS][size] = code(info, info.bs2(), 0x3F);
+            codes[SJIS_2004][size] = code(info, info.bx2(), 0x3F);
+            codes[W31J][size] = code(info, info.bw2(), 0x3F);
+            codes[I942][size] = code(info, info.i942(), 0x3F);
+            codes[I943][size] = code(info, info.i943(), 0x3F);
+            codes[I930][size] = info.encodableToI930() ? ebcdicCode(info.i930()) : NONE;
+            codes[I939][size] = info.encodableToI939() ? ebcdicCode(info.i939()) : NONE;
+
+            int value = string(info.s, -1);
+            strings[VALUE][size] = value;
+            strings[NFC][size] = string(info.nfc(), value);
+            strings[NFKC][size] = string(info.nfkc(), value);
+            strings[NFD][size] = string(info.nfd(), value);
+            String[] variant = info.variant();
+            strings[VARIANT][size] = (variant == null) ? ABSENT : string(variant[0], -1);
+
+            long kind = info.kubun() & 0xFFFFFFL;
+            kind |= (long) source(info) << SOURCE_SHIFT;
+            kind |= (long) position(info) << POSITION_SHIFT;
+            boolean[] decodables = {
+                info.decodableFromJis2(), info.decodableFromEuc(), info.decodableFromSjis(),
+                info.decodableFromSjis2004(), info.decodableFromW31j(),
+                info.decodableFromI942(), info.decodableFromI943(),
+                info.decodableFromI930(), info.decodableFromI939()
+            };
+            for (int i = 0; i < CODE_COLUMNS; ++i) {
+                if (decodables[i] && codes[i][size] != NONE) {
+                    kind |= 1L << (DECODABLE_SHIFT + i);
+                }
+            }
+            kinds[size] = kind;
+            ++size;
+        }
+
+        // s を文字列領域に追加する (same と等しい場合は同じ領域を使う)。
+        int string(String s, int same) {
+            if (same != -1 && equals(s, same)) {
+                return same;
+            }
+            if (s.length() > 0xFF) {
+                throw new IllegalArgumentException("s: " + s);
+            }
+            int start = pool.length();
+            pool.append(s);
+            return start << 8 | s.length();
+        }
+
+        boolean equals(String s, int ref) {
+            int start = ref >>> 8;
+            int len = ref & 0xFF;
+            if (len != s.length()) {
+                return false;
+            }
+            for (int i = 0; i < len; ++i) {
+                if (pool.charAt(start + i) != s.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static int code(Charsets.CodeInfo info, byte[] bytes, int replacement) {
+            if (!info.s.equals("?") && Charsets.contains(bytes, replacement)) {
+                return NONE;
+            }
+            return code(0, bytes, 0, bytes.length);
+        }
+
+        static int code(int type, byte[] bytes, int off, int len) {
+            if (len < 1 || 3 < len) {
+                return NONE;
+            }
+            int code = 0;
+            for (int i = off; i < off + len; ++i) {
+                code = code << 8 | (bytes[i] & 0xFF);
+            }
+            return type << 28 | len << 24 | code;
+        }
+
+        static int jisCode(String hex) {
+            int type = hex.charAt(0) - '0';
+            String code = hex.substring(2);
+            if (code.length() < 2 || 6 < code.length()) {
+                return NONE;
+            }
+            return type << 28 | (code.length() / 2) << 24 | Integer.parseInt(code, 16);
+        }
+
+        static int ebcdicCode(byte[] ebcdic) {
+            if (Charsets.isEbcdicKanji(ebcdic)) {
+                return code(1, ebcdic, 1, ebcdic.length - 2);
+            }
+            return code(0, ebcdic, 0, ebcdic.length);
+        }
+
+        static int source(Charsets.CodeInfo info) {
+            if (info instanceof Charsets.JisX0201Info) {
+                return X0201;
+            } else if (info instanceof Charsets.Windows31jInfo) {
+                return X0208;
+            } else if (info instanceof Charsets.JisX0213Info) {
+                return X0213;
+            } else {
+                return X0212;
+            }
+        }
+
+        static int position(Charsets.CodeInfo info) {
+            if (info instanceof Charsets.JisX0201Info) {
+                return ((Charsets.JisX0201Info) info).c;
+            } else if (info instanceof Charsets.Windows31jInfo) {
+                Charsets.Windows31jInfo w31j = (Charsets.Windows31jInfo) info;
+                return 1 << 14 | w31j.k << 7 | w31j.t;
+            } else if (info instanceof Charsets.JisX0213Info) {
+                Charsets.JisX0213Info x0213 = (Charsets.JisX0213Info) info;
+                return x0213.m << 14 | x0213.k << 7 | x0213.t;
+            } else {
+                Charsets.JisX0212Info x0212 = (Charsets.JisX0212Info) info;
+                return x0212.m << 14 | x0212.k << 7 | x0212.t;
+            }
+        }
+
+        CharTable build() {
+            int[][] codes = new int[CODE_COLUMNS][];
+            for (int i = 0; i < CODE_COLUMNS; ++i) {
+                codes[i] = Arrays.copyOf(this.codes[i], size);
+            }
+            int[][] strings = new int[STRING_COLUMNS][];
+            for (int i = 0; i < STRING_COLUMNS; ++i) {
+                strings[i] = Arrays.copyOf(this.strings[i], size);
+            }
+            char[] chars = new char[pool.length()];
+            pool.getChars(0, chars.length, chars, 0);
+            return new CharTable(size, codes, strings, Arrays.copyOf(kinds, size), chars);
+        }
+
+    }
+
+}
@@ -11,6 +11,7 @@ import java.nio.charset.*;
 import java.nio.file.*;
 import java.text.BreakIterator;
 import java.util.*;
+import java.util.function.*;
 import java.util.regex.*;
 
 class Charsets {
@@ -37,56 +38,86 @@ class Charsets {
         "CAN", "EM",  "SUB", "ESC", "FS",  "GS",  "RS",  "US"
     };
 
-    static final Map<String, String[]> VARIANT_MAP;
-    static {
-        Pattern p = Pattern.compile(" *U\\+(\\S+) +U\\+(\\S+)(?: +U\\+(\\S+))?(?: +([^#\\s]+))?.*");
-        Map<String, String[]> variantMap = new HashMap<>();
-        try (BufferedReader in = Files.newBufferedReader(Paths.get("variants.txt"), UTF_8)) {
-            String line;
-            while ((line = in.readLine()) != null) {
-                Matcher m = p.matcher(line);
-                if (m.matches()) {
-                    String key = cpToString(m.group(1));
-                    String variant = cpToString(m.group(2));
-                    if (m.group(3) != null) {
-                        variant += cpToString(m.group(3));
+    // -columns で指定できる列。
+    static final List<String> COLUMNS = Arrays.asList(
+        "UTF-16", "UTF-8", "KUBUN", "VAR", "NFC", "NFKC", "NFD",
+        "JIS", "EUC", "2004", "SJIS", "W31J", "I942", "I943", "I930", "I939"
+    );
+
+    // 異体字一覧 (variants.txt) と漢字の分類 (kanji.txt) は初めて使うときに読み込む。
+    // 読み込んだ後は変更しないため、スレッド間で共有できる。
+    // s の異体字と分類 (なしは null)。表の配列は共有するため、複製を返す。
+    static String[] variant(String s) {
+        String[] variant = VariantMapHolder.VARIANT_MAP.get(s);
+        return (variant == null) ? null : variant.clone();
+    }
+
+    static Set<String> variantKeys() {
+        return VariantMapHolder.VARIANT_MAP.keySet();
+    }
+
+    static Map<String, Character> kanjiMap() {
+        return KanjiMapHolder.KANJI_MAP;
+    }
+
+    static class VariantMapHolder {
+
+        static final Map<String, String[]> VARIANT_MAP;
+        static {
+            Pattern p = Pattern.compile(" *U\\+(\\S+) +U\\+(\\S+)(?: +U\\+(\\S+))?(?: +([^#\\s]+))?.*");
+            Map<String, String[]> variantMap = new HashMap<>();
+            try (BufferedReader in = Files.newBufferedReader(Paths.get("variants.txt"), UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    Matcher m = p.matcher(line);
+                    if (m.matches()) {
+                        String key = cpToString(m.group(1));
+                        String variant = cpToString(m.group(2));
+                        if (m.group(3) != null) {
+                            variant += cpToString(m.group(3));
+                        }
+                        String[] value = {variant, m.group(4)};
+                        variantMap.put(key, value);
                     }
-                    String[] value = {variant, m.group(4)};
-                    variantMap.put(key, value);
                 }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            VARIANT_MAP = Collections.unmodifiableMap(variantMap);
         }
-        VARIANT_MAP = variantMap;
+
     }
 
-    static final Map<String, Character> KANJI_MAP;
-    static {
-        Pattern p = Pattern.compile("(\\d) (\\S+)");
-        Map<String, Character> kanjiMap = new HashMap<>();
-        try (BufferedReader in = Files.newBufferedReader(Paths.get("kanji.txt"), UTF_8)) {
-            BreakIterator bi = BreakIterator.getCharacterInstance(Locale.JAPAN);
-            String line;
-            while ((line = in.readLine()) != null) {
-                Matcher m = p.matcher(line);
-                if (m.matches()) {
-                    char kubun = m.group(1).charAt(0);
-                    String g = m.group(2);
-                    bi.setText(g);
-                    for (int start = bi.first(), end = bi.next();
-                            end != BreakIterator.DONE; start = end, end = bi.next()) {
-                        String s = g.substring(start, end);
-                        if (kubun == '3' || !kanjiMap.containsKey(s)) {
-                            kanjiMap.put(s, kubun);
+    static class KanjiMapHolder {
+
+        static final Map<String, Character> KANJI_MAP;
+        static {
+            Pattern p = Pattern.compile("(\\d) (\\S+)");
+            Map<String, Character> kanjiMap = new HashMap<>();
+            try (BufferedReader in = Files.newBufferedReader(Paths.get("kanji.txt"), UTF_8)) {
+                BreakIterator bi = BreakIterator.getCharacterInstance(Locale.JAPAN);
+                String line;
+                while ((line = in.readLine()) != null) {
+                    Matcher m = p.matcher(line);
+                    if (m.matches()) {
+                        char kubun = m.group(1).charAt(0);
+                        String g = m.group(2);
+                        bi.setText(g);
+                        for (int start = bi.first(), end = bi.next();
+                                end != BreakIterator.DONE; start = end, end = bi.next()) {
+                            String s = g.substring(start, end);
+                            if (kubun == '3' || !kanjiMap.containsKey(s)) {
+                                kanjiMap.put(s, kubun);
+                            }
                         }
                     }
                 }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            KANJI_MAP = Collections.unmodifiableMap(kanjiMap);
         }
-        KANJI_MAP = kanjiMap;
+
     }
 
     final String option;
@@ -100,6 +131,18 @@ class Charsets {
             }
             return;
         }
+        if (args.length > 0 && "-columns".equals(args[0])) {
+            new Charsets(args).printColumns((args.length > 1) ? args[1] : "UTF-16,UTF-8");
+            return;
+        }
+        if (args.length > 0 && "-check".equals(args[0])) {
+            checkBulkKuten();
+            return;
+        }
+        if (args.length > 0 && "-stats".equals(args[0])) {
+            new Charsets(args).printKubunStats();
+            return;
+        }
         new Charsets(args).printEncodedLines();
     }
 
@@ -126,7 +169,7 @@ class Charsets {
     }
 
     String optionToSeparator(String option) {
-        if (option.startsWith("-csv")) {
+        if (option.startsWith("-csv") || "-columns".equals(option)) {
             return ",";
         } else {
             return " ";
@@ -368,6 +411,111 @@ class Charsets {
         }
     }
 
+    // 指定した列だけを CSV で出力する (他の列の変換は行わない)。
+    void printColumns(String spec) {
+        String[] columns = spec.split(",");
+        for (String column : columns) {
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("column: " + column);
+            }
+        }
+        println("Unicode," + String.join(",", columns));
+        forEachRow(info -> printColumns(info, columns));
+    }
+
+    // 全ての定義済みの文字 (JIS X 0201、Windows-31J、JIS X 0213、JIS X 0212 の順)。
+    void forEachRow(Consumer<CodeInfo> action) {
+        for (int c = 0x00; c <= 0xFF; ++c) {
+            forEachRow(new JisX0201Info(c), action);
+        }
+        forEachRow(new JisX0201Info(0x5C, "\u00A5"), action);
+        forEachRow(new JisX0201Info(0x7E, "\u203E"), action);
+        for (int k = 1; k <= 120; ++k) {
+            for (int t = 1; t <= 94; ++t) {
+                forEachRow(new Windows31jInfo(k, t), action);
+            }
+        }
+        for (int m = 1; m <= 2; ++m) {
+            for (int k = 1; k <= 94; ++k) {
+                for (int t = 1; t <= 94; ++t) {
+                    if (isX0212Area(m, k)) {
+                        forEachRow(new JisX0212Info(m, k, t), action);
+                        continue;
+                    }
+                    JisX0213Info info = new JisX0213Info(m, k, t);
+                    // JIS X 0208 で出力済み。
+                    if (!info.s.equals(info.ss)) {
+                        forEachRow(info, action);
+                    }
+                }
+            }
+        }
+    }
+
+    static void forEachRow(CodeInfo info, Consumer<CodeInfo> action) {
+        if (!info.undefined()) {
+            action.accept(info);
+        }
+    }
+
+    void printColumns(CodeInfo info, String[] columns) {
+        StringBuilder sb = new StringBuilder();
+        if (info.cp < 0) {
+            sb.append(info.utf16());
+        } else {
+            sb.append(String.format("U+%04X", info.cp));
+        }
+        for (String column : columns) {
+            sb.append(sep).append(columnValue(info, column));
+        }
+        println(sb.toString());
+    }
+
+    String columnValue(CodeInfo info, String column) {
+        if ("UTF-16".equals(column)) {
+            return info.utf16();
+        } else if ("UTF-8".equals(column)) {
+            return info.utf8();
+        } else if ("KUBUN".equals(column)) {
+            return Kubun.toString(info.kubun());
+        } else if ("VAR".equals(column)) {
+            String[] variant = info.variant();
+            return (variant == null) ? "-" : toHexString(variant[0]);
+        } else if ("NFC".equals(column)) {
+            return toHexString(info.nfc());
+        } else if ("NFKC".equals(column)) {
+            return toHexString(info.nfkc());
+        } else if ("NFD".equals(column)) {
+            return toHexString(info.nfd());
+        } else if ("JIS".equals(column)) {
+            return info.encodableToJis2() ? jisToHexString(info.bj2()) : "-";
+        } else if ("EUC".equals(column)) {
+            return columnValue(info, info.be2(), 0x3F);
+        } else if ("2004".equals(column)) {
+            return columnValue(info, info.bx2(), 0x3F);
+        } else if ("SJIS".equals(column)) {
+            return columnValue(info, info.bs2(), 0x3F);
+        } else if ("W31J".equals(column)) {
+            return columnValue(info, info.bw2(), 0x3F);
+        } else if ("I942".equals(column)) {
+            return columnValue(info, info.i942(), 0x3F);
+        } else if ("I943".equals(column)) {
+            return columnValue(info, info.i943(), 0x3F);
+        } else if ("I930".equals(column)) {
+            return info.encodableToI930() ? info.i930Hex() : "-";
+        } else {
+            return info.encodableToI939() ? info.i939Hex() : "-";
+        }
+    }
+
+    // 代替文字に変換された場合は "-"。
+    static String columnValue(CodeInfo info, byte[] bytes, int replacement) {
+        if (!info.s.equals("?") && contains(bytes, replacement)) {
+            return "-";
+        }
+        return toHexString(bytes);
+    }
+
     void printKubunDesc() {
         if (csv2()) {
             println();
@@ -479,7 +627,7 @@ class Charsets {
     List<byte[]> encodedLines(int c) {
         JisX0201Info info = new JisX0201Info(c);
         // CSV は相互変換可能な文字のみ。
-        if ((csv()) && info.kubun().charAt(0) >= '7') {
+        if ((csv()) && Kubun.unicode(info.kubun()) >= 7) {
             return Collections.emptyList();
         }
         if (c == 0x5C) {
@@ -494,7 +642,7 @@ class Charsets {
     List<byte[]> encodedLines(int k, int t) {
         Windows31jInfo info = new Windows31jInfo(k, t);
         // CSV は相互変換可能な文字のみ。
-        if ((csv()) && info.kubun().charAt(0) >= '7') {
+        if ((csv()) && Kubun.unicode(info.kubun()) >= 7) {
             return Collections.emptyList();
         }
         if (info.showSjis) {
@@ -505,16 +653,13 @@ class Charsets {
 
     List<byte[]> encodedLinesX0213(int m, int k, int t) {
         // 補助漢字の領域。
-        if (m == 2 && (k == 2
-                || ( 6 <= k && k <=  7)
-                || ( 9 <= k && k <= 11)
-                || (16 <= k && k <= 77))) {
+        if (isX0212Area(m, k)) {
             return Collections.emptyList();
         }
 
         JisX0213Info info = new JisX0213Info(m, k, t);
         // CSV は Windows-31J で未定義な文字のみ。
-        if ((csv()) && info.kubun().charAt(4) < '7') {
+        if ((csv()) && Kubun.w31j(info.kubun()) < 7) {
             return Collections.emptyList();
         }
         if (info.undefined() || info.s.equals(info.ss)) {
@@ -546,10 +691,11 @@ class Charsets {
                 return Collections.singletonList(bab.toByteArray());
             }
         }
+        int kubun = Kubun.of(3, 0, 9, 0, 9, 0);
         if (csv4()) {
-            bab.append("3,0,9,0,9,0" + sep);
+            bab.append(Kubun.toCsv(kubun) + sep);
         } else {
-            bab.append("%-6s" + sep, "309090");
+            bab.append("%-6s" + sep, Kubun.toString(kubun));
         }
 
         if (!csv2() && !csv3()) {
@@ -582,16 +728,14 @@ class Charsets {
 
     List<byte[]> encodedLinesX0212(int m, int k, int t) {
         // 第4水準漢字の領域。
-        if (m != 2 || (k != 2
-                && !( 6 <= k && k <=  7)
-                && !( 9 <= k && k <= 11)
-                && !(16 <= k && k <= 77))) {
+        if (!isX0212Area(m, k)) {
             return Collections.emptyList();
         }
 
         JisX0212Info info = new JisX0212Info(m, k, t);
         // CSV は Windows-31J で未定義な文字のみ。
-        if ((csv()) && (info.kubun().charAt(3) != '5' || info.kubun().charAt(4) < '7')) {
+        int kubun = info.kubun();
+        if ((csv()) && (Kubun.level(kubun) != 5 || Kubun.w31j(kubun) < 7)) {
             return Collections.emptyList();
         }
         if (info.undefined()) {
@@ -600,6 +744,122 @@ class Charsets {
         return Collections.singletonList(info.encodedLine());
     }
 
+    // JIS X 0213 の2面のうち、JIS X 0212 (補助漢字) の区。
+    static boolean isX0212Area(int m, int k) {
+        return m == 2 && (k == 2
+                || ( 6 <= k && k <=  7)
+                || ( 9 <= k && k <= 11)
+                || (16 <= k && k <= 77));
+    }
+
+    // 区点 (1〜120区) ごとの詳細区分。添字は (k - 1) * 94 + (t - 1)。
+    int[] kubunsX0208() {
+        int[] kubuns = new int[120 * 94];
+        for (int k = 1; k <= 120; ++k) {
+            for (int t = 1; t <= 94; ++t) {
+                kubuns[(k - 1) * 94 + (t - 1)] = new Windows31jInfo(k, t).kubun();
+            }
+        }
+        return kubuns;
+    }
+
+    // 面区点ごとの詳細区分 (2面の補助漢字の領域は JIS X 0212)。
+    // 添字は ((m - 1) * 94 + (k - 1)) * 94 + (t - 1)。
+    int[] kubunsX0213() {
+        int[] kubuns = new int[2 * 94 * 94];
+        for (int m = 1; m <= 2; ++m) {
+            for (int k = 1; k <= 94; ++k) {
+                for (int t = 1; t <= 94; ++t) {
+                    int kubun;
+                    if (isX0212Area(m, k)) {
+                        kubun = new JisX0212Info(m, k, t).kubun();
+                    } else {
+                        kubun = new JisX0213Info(m, k, t).kubun();
+                    }
+                    kubuns[((m - 1) * 94 + (k - 1)) * 94 + (t - 1)] = kubun;
+                }
+            }
+        }
+        return kubuns;
+    }
+
+    // コードポイントごとの詳細区分 (先に現れた符号のものを優先)。
+    int[] kubunsByCodePoint() {
+        int[] kubuns = new int[Character.MAX_CODE_POINT + 1];
+        Arrays.fill(kubuns, Kubun.UNDEFINED);
+        for (int c = 0x00; c <= 0xFF; ++c) {
+            putKubun(kubuns, new JisX0201Info(c));
+        }
+        putKubun(kubuns, new JisX0201Info(0x5C, "\u00A5"));
+        putKubun(kubuns, new JisX0201Info(0x7E, "\u203E"));
+        for (int k = 1; k <= 120; ++k) {
+            for (int t = 1; t <= 94; ++t) {
+                putKubun(kubuns, new Windows31jInfo(k, t));
+            }
+        }
+        for (int m = 1; m <= 2; ++m) {
+            for (int k = 1; k <= 94; ++k) {
+                for (int t = 1; t <= 94; ++t) {
+                    if (isX0212Area(m, k)) {
+                        putKubun(kubuns, new JisX0212Info(m, k, t));
+                    } else {
+                        putKubun(kubuns, new JisX0213Info(m, k, t));
+                    }
+                }
+            }
+        }
+        return kubuns;
+    }
+
+    static void putKubun(int[] kubuns, CodeInfo info) {
+        if (info.cp < 0 || kubuns[info.cp] != Kubun.UNDEFINED) {
+            return;
+        }
+        kubuns[info.cp] = info.kubun();
+    }
+
+    void printKubunStats() {
+        println("#");
+        println("# 詳細区分の集計");
+        println("#");
+        printKubunHistogram("区点 (JIS X 0208、Windows-31J)", kubunsX0208());
+        printKubunHistogram("面区点 (JIS X 0213、JIS X 0212)", kubunsX0213());
+        int[] kubuns = kubunsByCodePoint();
+        printKubunHistogram("コードポイント", kubuns);
+
+        println();
+        println("# コードポイント - 区分別");
+        println();
+        // Windows-31J で未定義の JIS X 0213 の文字。
+        int mask = Kubun.mask(Kubun.STANDARD) | Kubun.mask(Kubun.W31J);
+        int value = Kubun.with(Kubun.with(0, Kubun.STANDARD, 4), Kubun.W31J, 9);
+        println("JIS X 0213 (Windows-31J 未定義) %6d", Kubun.count(kubuns, mask, value));
+        println("常用漢字                        %6d",
+                Kubun.count(kubuns, Kubun.mask(Kubun.KANJI), Kubun.with(0, Kubun.KANJI, 1)));
+        println("NFKC で変換                     %6d",
+                Kubun.count(kubuns, Kubun.mask(Kubun.NORMALIZATION), Kubun.with(0, Kubun.NORMALIZATION, 2))
+                + Kubun.count(kubuns, Kubun.mask(Kubun.NORMALIZATION), Kubun.with(0, Kubun.NORMALIZATION, 3)));
+    }
+
+    void printKubunHistogram(String title, int[] kubuns) {
+        println();
+        println("# %s (定義済み %d)", title,
+                kubuns.length - Kubun.count(kubuns, -1, Kubun.UNDEFINED));
+        println();
+        println("No      0     1     2     3     4     5     6     7     8     9  桁");
+        println("-- ----- ----- ----- ----- ----- ----- ----- ----- ----- -----  ------------");
+        for (int field = 0; field < Kubun.FIELDS; ++field) {
+            int[] counts = Kubun.histogram(kubuns, field);
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%2d", field + 1));
+            for (int count : counts) {
+                sb.append(String.format(" %5d", count));
+            }
+            sb.append("  ").append(Kubun.FIELD_NAMES[field]);
+            println(sb.toString());
+        }
+    }
+
     static int kutenToJis(int k, int t) {
         assertRange("k", k, 1, 94);
         assertRange("t", t, 1, 94);
@@ -670,6 +930,306 @@ class Charsets {
         return kutenToEuc(kuten[0], kuten[1], kuten[2]);
     }
 
+    // 区点 (kuten(k, t)) または面区点 (menKuten(m, k, t)) の配列をまとめて変換する。
+    // 1件ずつの関数と同じ結果を返し、範囲外の値は同じ例外にする。
+    // 区と点の範囲を確かめ (Shift_JIS の1バイト目は区の表で引く)、範囲外のときだけ1件ずつの関数を呼ぶ。
+
+    // 区 → Shift_JIS の1バイト目 (0 は範囲外)。
+    static final int[] SJIS_LEADS = new int[121];
+    static final int[] SJIS_2004_LEADS = new int[95];
+    static {
+        for (int k = 1; k <= 120; ++k) {
+            SJIS_LEADS[k] = kutenToSjis(k, 1) >> 8;
+        }
+        for (int k = 1; k <= 94; ++k) {
+            try {
+                SJIS_2004_LEADS[k] = kutenToSjis(2, k, 1) >> 8;
+            } catch (IllegalArgumentException e) {
+                // 第2面にない区。
+            }
+        }
+    }
+
+    static int menKuten(int m, int k, int t) {
+        return m * 10000 + kuten(k, t);
+    }
+
+    static void kutenToJis(int[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = kutenToJis(src[off + i]);
+        }
+    }
+
+    static void kutenToJis(short[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = kutenToJis(src[off + i]);
+        }
+    }
+
+    static int kutenToJis(int kuten) {
+        int k = kuten / 100;
+        int t = kuten % 100;
+        if (1 <= k && k <= 94 && 1 <= t && t <= 94) {
+            return word(k + 0x20, t + 0x20);
+        }
+        return kutenToJis(k, t);
+    }
+
+    static void kutenToEuc(int[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = kutenToEuc(src[off + i]);
+        }
+    }
+
+    static void kutenToEuc(short[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = kutenToEuc(src[off + i]);
+        }
+    }
+
+    static int kutenToEuc(int kuten) {
+        int k = kuten / 100;
+        int t = kuten % 100;
+        if (1 <= k && k <= 94 && 1 <= t && t <= 94) {
+            return word(k + 0xA0, t + 0xA0);
+        }
+        return kutenToEuc(k, t);
+    }
+
+    static void menKutenToEuc(int[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = menKutenToEuc(src[off + i]);
+        }
+    }
+
+    static void menKutenToEuc(short[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = menKutenToEuc(src[off + i]);
+        }
+    }
+
+    static int menKutenToEuc(int menKuten) {
+        int m = menKuten / 10000;
+        int k = menKuten / 100 % 100;
+        int t = menKuten % 100;
+        if (1 <= m && m <= 2 && 1 <= k && k <= 94 && 1 <= t && t <= 94) {
+            return ((m == 2) ? 0x8F0000 : 0) | word(k + 0xA0, t + 0xA0);
+        }
+        return kutenToEuc(m, k, t);
+    }
+
+    static void kutenToSjis(int[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = kutenToSjis(src[off + i]);
+        }
+    }
+
+    static void kutenToSjis(short[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = kutenToSjis(src[off + i]);
+        }
+    }
+
+    // 120 区まで。
+    static int kutenToSjis(int kuten) {
+        int k = kuten / 100;
+        int t = kuten % 100;
+        if (1 <= k && k <= 120 && 1 <= t && t <= 94) {
+            return sjisWord(SJIS_LEADS[k], k, t);
+        }
+        return kutenToSjis(k, t);
+    }
+
+    static void menKutenToSjis(int[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = menKutenToSjis(src[off + i]);
+        }
+    }
+
+    static void menKutenToSjis(short[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = menKutenToSjis(src[off + i]);
+        }
+    }
+
+    static int menKutenToSjis(int menKuten) {
+        int m = menKuten / 10000;
+        int k = menKuten / 100 % 100;
+        int t = menKuten % 100;
+        int c1 = 0;
+        if (1 <= k && k <= 94 && 1 <= t && t <= 94) {
+            c1 = (m == 1) ? SJIS_LEADS[k] : ((m == 2) ? SJIS_2004_LEADS[k] : 0);
+        }
+        if (c1 != 0) {
+            return sjisWord(c1, k, t);
+        }
+        return kutenToSjis(m, k, t);
+    }
+
+    static int sjisWord(int c1, int k, int t) {
+        return word(c1, t + (k % 2 == 1 ? (t <= 63 ? 0x3F : 0x40) : 0x9E));
+    }
+
+    // Shift_JIS-2004 の符号 (2バイト) → 面区点。
+    static void sjis2004ToKuten(int[] src, int off, int[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = sjis2004ToKuten(src[off + i]);
+        }
+    }
+
+    static void sjis2004ToKuten(short[] src, int off, short[] dst, int dpos, int len) {
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = (short) sjis2004ToKuten(src[off + i] & 0xFFFF);
+        }
+    }
+
+    static int sjis2004ToKuten(int word) {
+        int c1 = (word >> 8) & 0xFF;
+        int c2 = word & 0xFF;
+        word = word(c1, c2);
+        int m = c1 < 0xF0 ? 1 : 2;
+        int k = (c1 - (c1 < 0xE0 ? 0x80 : (c1 < 0xF0 ? 0xC0 :
+                (word < 0xF09F ? 0xEF :
+                (word < 0xF140 ? 0xEC :
+                (word < 0xF29F ? 0xEF :
+                (word < 0xF49F ? 0xEC : 0xCD))))))) * 2
+                - (c2 < 0x9F ? 1 : 0);
+        int t = c2 - (c2 < 0x80 ? 0x3F : (c2 < 0x9F ? 0x40 : 0x9E));
+        return menKuten(m, k, t);
+    }
+
+    // 配列版と1件ずつの関数の結果 (例外を含む) をすべての値で比べる。
+    static void checkBulkKuten() {
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, UTF_8);
+        // 範囲外の値を含む (区点は 120 区、面区点は 2 面まで)。
+        int min = -1;
+        int max = 29999;
+        int n = max - min + 1;
+        int[] src = new int[n];
+        short[] shorts = new short[n];
+        for (int i = 0; i < n; ++i) {
+            src[i] = min + i;
+            shorts[i] = (short) src[i];
+        }
+        String[] names = {"kutenToJis", "kutenToEuc", "menKutenToEuc", "kutenToSjis", "menKutenToSjis"};
+        for (int f = 0; f < names.length; ++f) {
+            int[] expected = new int[n];
+            String[] errors = new String[n];
+            int valid = 0;
+            for (int i = 0; i < n; ++i) {
+                int m = src[i] / 10000;
+                int k = src[i] / 100;
+                int t = src[i] % 100;
+                try {
+                    switch (f) {
+                    case 0:
+                        expected[i] = kutenToJis(k, t);
+                        break;
+                    case 1:
+                        expected[i] = kutenToEuc(k, t);
+                        break;
+                    case 2:
+                        expected[i] = kutenToEuc(m, k % 100, t);
+                        break;
+                    case 3:
+                        expected[i] = kutenToSjis(k, t);
+                        break;
+                    default:
+                        expected[i] = kutenToSjis(m, k % 100, t);
+                        break;
+                    }
+                    ++valid;
+                } catch (IllegalArgumentException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+            int mismatches = 0;
+            int[] dst = new int[1];
+            for (int i = 0; i < 2 * n; ++i) {
+                int j = i % n;
+                boolean useShorts = (i >= n);
+                String error = null;
+                try {
+                    switch (f) {
+                    case 0:
+                        if (useShorts) {
+                            kutenToJis(shorts, j, dst, 0, 1);
+                        } else {
+                            kutenToJis(src, j, dst, 0, 1);
+                        }
+                        break;
+                    case 1:
+                        if (useShorts) {
+                            kutenToEuc(shorts, j, dst, 0, 1);
+                        } else {
+                            kutenToEuc(src, j, dst, 0, 1);
+                        }
+                        break;
+                    case 2:
+                        if (useShorts) {
+                            menKutenToEuc(shorts, j, dst, 0, 1);
+                        } else {
+                            menKutenToEuc(src, j, dst, 0, 1);
+                        }
+                        break;
+                    case 3:
+                        if (useShorts) {
+                            kutenToSjis(shorts, j, dst, 0, 1);
+                        } else {
+                            kutenToSjis(src, j, dst, 0, 1);
+                        }
+                        break;
+                    default:
+                        if (useShorts) {
+                            menKutenToSjis(shorts, j, dst, 0, 1);
+                        } else {
+                            menKutenToSjis(src, j, dst, 0, 1);
+                        }
+                        break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+                if (!Objects.equals(error, errors[j]) || (error == null && dst[0] != expected[j])) {
+                    if (mismatches++ < 10) {
+                        out.printf("%s(%d): %s %X / %s %X%n", names[f], src[j],
+                                errors[j], expected[j], error, dst[0]);
+                    }
+                }
+            }
+            out.printf("%-15s %6d 件 (有効 %5d 件) 不一致 %d 件%n", names[f], n, valid, mismatches);
+        }
+
+        int[] words = new int[0x10000];
+        short[] shortWords = new short[0x10000];
+        for (int word = 0; word < words.length; ++word) {
+            words[word] = word;
+            shortWords[word] = (short) word;
+        }
+        int[] kutens = new int[words.length];
+        short[] shortKutens = new short[words.length];
+        sjis2004ToKuten(words, 0, kutens, 0, words.length);
+        sjis2004ToKuten(shortWords, 0, shortKutens, 0, words.length);
+        int mismatches = 0;
+        int valid = 0;
+        for (int word = 0; word < words.length; ++word) {
+            int[] kuten = sjis2004ToKuten(bytes(word, 2));
+            int expected = menKuten(kuten[0], kuten[1], kuten[2]);
+            boolean inShort = (short) expected == expected;
+            if (inShort) {
+                ++valid;
+            }
+            if (kutens[word] != expected || (inShort && shortKutens[word] != expected)) {
+                if (mismatches++ < 10) {
+                    out.printf("sjis2004ToKuten(%04X): %d / %d %d%n", word, expected,
+                            kutens[word], shortKutens[word]);
+                }
+            }
+        }
+        out.printf("%-15s %6d 件 (short %5d 件) 不一致 %d 件%n", "sjis2004ToKuten",
+                words.length, valid, mismatches);
+    }
+
     static void assertRange(String name, int value, int min, int max) {
         if (value < min || max < value) {
             throw new IllegalArgumentException(name + ": " + value);
@@ -703,7 +1263,7 @@ class Charsets {
     }
 
     static String decode(byte[] bytes, Charset encoding) {
-        return new String(bytes, encoding);
+        return Codecs.decode(bytes, encoding);
     }
 
     static String toHexString(byte[] bytes) {
@@ -771,21 +1331,27 @@ class Charsets {
         }
     }
 
+    // 1文字分の列。forEachRow が行ごとに作り、作ったスレッドだけで使う。
+    // 後の列は同期せずに初めて使うときに求めるため、スレッド間で共有しない
+    // (共有する表は VariantMapHolder などの、作った後は変更しない表)。
     class CodeInfo {
 
         String s;
         int cp;
 
-        String nfc;
-        String nfkc;
-        String nfd;
-        String[] variant;
-
         int jis;
         int euc;
         int sjis;
 
         byte[] b;
+
+        // 以下の列は初めて使うときに求める (CodeInfo を共有しないため同期しない)。
+        String nfc;
+        String nfkc;
+        String nfd;
+        String[] variant;
+        boolean variantLoaded;
+
         byte[] bj2;
         byte[] be2;
         byte[] bs2;
@@ -805,19 +1371,98 @@ class Charsets {
             }
             this.s = s;
             this.cp = (s.codePointCount(0, s.length()) != 1) ? -1 : s.codePointAt(0);
-            this.nfc  = normalize(s, NFC);
-            this.nfkc = normalize(s, NFKC);
-            this.nfd  = normalize(s, NFD);
-            this.variant = VARIANT_MAP.get(s);
-            this.bj2 = s.getBytes(ISO_2022_JP_X);
-            this.be2 = s.getBytes(EUC_JP_X);
-            this.bs2 = s.getBytes(SHIFT_JIS);
-            this.bx2 = s.getBytes(SHIFT_JIS_2004);
-            this.bw2 = s.getBytes(WINDOWS_31J);
-            this.i942 = s.getBytes(IBM_942);
-            this.i943 = s.getBytes(IBM_943);
-            this.i930 = s.getBytes(IBM_930);
-            this.i939 = s.getBytes(IBM_939);
+        }
+
+        String nfc() {
+            if (nfc == null) {
+                nfc = normalize(s, NFC);
+            }
+            return nfc;
+        }
+
+        String nfkc() {
+            if (nfkc == null) {
+                nfkc = normalize(s, NFKC);
+            }
+            return nfkc;
+        }
+
+        String nfd() {
+            if (nfd == null) {
+                nfd = normalize(s, NFD);
+            }
+            return nfd;
+        }
+
+        String[] variant() {
+            if (!variantLoaded) {
+                variant = Charsets.variant(s);
+                variantLoaded = true;
+            }
+            return variant;
+        }
+
+        byte[] bj2() {
+            if (bj2 == null) {
+                bj2 = Codecs.encode(s, ISO_2022_JP_X);
+            }
+            return bj2;
+        }
+
+        byte[] be2() {
+            if (be2 == null) {
+                be2 = Codecs.encode(s, EUC_JP_X);
+            }
+            return be2;
+        }
+
+        byte[] bs2() {
+            if (bs2 == null) {
+                bs2 = Codecs.encode(s, SHIFT_JIS);
+            }
+            return bs2;
+        }
+
+        byte[] bx2() {
+            if (bx2 == null) {
+                bx2 = Codecs.encode(s, SHIFT_JIS_2004);
+            }
+            return bx2;
+        }
+
+        byte[] bw2() {
+            if (bw2 == null) {
+                bw2 = Codecs.encode(s, WINDOWS_31J);
+            }
+            return bw2;
+        }
+
+        byte[] i942() {
+            if (i942 == null) {
+                i942 = Codecs.encode(s, IBM_942);
+            }
+            return i942;
+        }
+
+        byte[] i943() {
+            if (i943 == null) {
+                i943 = Codecs.encode(s, IBM_943);
+            }
+            return i943;
+        }
+
+        byte[] i930() {
+            if (i930 == null) {
+                i930 = Codecs.encode(s, IBM_930);
+            }
+            return i930;
+        }
+
+        byte[] i939() {
+            if (i939 == null) {
+                i939 = Codecs.encode(s, IBM_939);
+            }
+            return i939;
         }
 
         boolean undefined() {
@@ -828,76 +1473,76 @@ class Charsets {
             if (s.equals("?") || s.equals("？")) {
                 return true;
             }
-            String hex = toHexString(bj2);
+            String hex = toHexString(bj2());
             return (!hex.contains("3F") || hex.startsWith("1B")) && !hex.contains("2129");
         }
 
         boolean decodableFromJis2() {
-            return decode(bj2, ISO_2022_JP_X).equals(s);
+            return decode(bj2(), ISO_2022_JP_X).equals(s);
         }
 
         boolean encodableToEuc() {
-            return s.equals("?") || !contains(be2, 0x3F);
+            return s.equals("?") || !contains(be2(), 0x3F);
         }
 
         boolean decodableFromEuc() {
-            return decode(be2, EUC_JP_X).equals(s);
+            return decode(be2(), EUC_JP_X).equals(s);
         }
 
         boolean encodableToSjis() {
-            return Arrays.equals(bs2, b);
+            return Arrays.equals(bs2(), b);
         }
 
         boolean decodableFromSjis() {
-            return decode(bs2, SHIFT_JIS_2004).equals(s);
+            return decode(bs2(), SHIFT_JIS_2004).equals(s);
         }
 
         boolean encodableToSjis2004() {
-            return Arrays.equals(bx2, b);
+            return Arrays.equals(bx2(), b);
         }
 
         boolean decodableFromSjis2004() {
-            return decode(bx2, SHIFT_JIS_2004).equals(s);
+            return decode(bx2(), SHIFT_JIS_2004).equals(s);
         }
 
         boolean encodableToW31j() {
-            return Arrays.equals(bw2, b);
+            return Arrays.equals(bw2(), b);
         }
 
         boolean decodableFromW31j() {
-            return decode(bw2, WINDOWS_31J).equals(s);
+            return decode(bw2(), WINDOWS_31J).equals(s);
         }
 
         boolean encodableToI942() {
-            return s.equals("?") || !contains(i942, 0x3F);
+            return s.equals("?") || !contains(i942(), 0x3F);
         }
 
         boolean decodableFromI942() {
-            return decode(i942, IBM_942).equals(s);
+            return decode(i942(), IBM_942).equals(s);
         }
 
         boolean encodableToI943() {
-            return s.equals("?") || !contains(i943, 0x3F);
+            return s.equals("?") || !contains(i943(), 0x3F);
         }
 
         boolean decodableFromI943() {
-            return decode(i943, IBM_943).equals(s);
+            return decode(i943(), IBM_943).equals(s);
         }
 
         boolean encodableToI930() {
-            return s.equals("?") || !contains(i930, 0x6F) || isEbcdicKanji(i930);
+            return s.equals("?") || !contains(i930(), 0x6F) || isEbcdicKanji(i930());
         }
 
         boolean decodableFromI930() {
-            return decode(i930, IBM_930).equals(s);
+            return decode(i930(), IBM_930).equals(s);
         }
 
         boolean encodableToI939() {
-            return s.equals("?") || !contains(i939, 0x6F) || isEbcdicKanji(i939);
+            return s.equals("?") || !contains(i939(), 0x6F) || isEbcdicKanji(i939());
         }
 
         boolean decodableFromI939() {
-            return decode(i939, IBM_939).equals(s);
+            return decode(i939(), IBM_939).equals(s);
         }
 
         String utf16() {
@@ -908,30 +1553,30 @@ class Charsets {
             return toHexString(s.getBytes(UTF_8));
         }
 
-        String i930() {
-            return ebcdicToHexString(i930);
+        String i930Hex() {
+            return ebcdicToHexString(i930());
         }
 
-        String i939() {
-            return ebcdicToHexString(i939);
+        String i939Hex() {
+            return ebcdicToHexString(i939());
         }
 
         void appendVariant(ByteArrayBuilder bab) {
-            if (variant != null) {
-                bab.append("%-8s" + sep, toHexString(variant[0]));
-            } else if (!nfc.equals(s)) {
-                bab.append("%-8s" + sep, toHexString(nfc));
-            } else if (!nfkc.equals(s)) {
-                if (nfkc.length() <= 2) {
-                    bab.append("%-8s" + sep, toHexString(nfkc));
+            if (variant() != null) {
+                bab.append("%-8s" + sep, toHexString(variant()[0]));
+            } else if (!nfc().equals(s)) {
+                bab.append("%-8s" + sep, toHexString(nfc()));
+            } else if (!nfkc().equals(s)) {
+                if (nfkc().length() <= 2) {
+                    bab.append("%-8s" + sep, toHexString(nfkc()));
                 } else {
-                    bab.append("%04X... " + sep, (int) nfkc.charAt(0));
+                    bab.append("%04X... " + sep, (int) nfkc().charAt(0));
                 }
-            } else if (!nfd.equals(s)) {
-                if (nfd.length() <= 2) {
-                    bab.append("%-8s" + sep, toHexString(nfd));
+            } else if (!nfd().equals(s)) {
+                if (nfd().length() <= 2) {
+                    bab.append("%-8s" + sep, toHexString(nfd()));
                 } else {
-                    bab.append("%04X... " + sep, (int) nfd.charAt(0));
+                    bab.append("%04X... " + sep, (int) nfd().charAt(0));
                 }
             } else {
                 bab.append("-       " + sep);
@@ -946,17 +1591,17 @@ class Charsets {
                 if (!encodableToI942()) {
                     bab.append("-    " + sep);
                 } else if (!decodableFromI942()) {
-                    bab.append(">%-4s" + sep, toHexString(i942));
+                    bab.append(">%-4s" + sep, toHexString(i942()));
                 } else {
-                    bab.append("%-4s " + sep, toHexString(i942));
+                    bab.append("%-4s " + sep, toHexString(i942()));
                 }
                 // IBM 943
                 if (!encodableToI943()) {
                     bab.append("-    " + sep);
                 } else if (!decodableFromI943()) {
-                    bab.append(">%-4s" + sep, toHexString(i943));
+                    bab.append(">%-4s" + sep, toHexString(i943()));
                 } else {
-                    bab.append("%-4s " + sep, toHexString(i943));
+                    bab.append("%-4s " + sep, toHexString(i943()));
                 }
             }
         }
@@ -969,139 +1614,143 @@ class Charsets {
                 if (!encodableToI930()) {
                     bab.append("-    " + sep);
                 } else if (!decodableFromI930()) {
-                    bab.append(">%-4s" + sep, i930());
+                    bab.append(">%-4s" + sep, i930Hex());
                 } else {
-                    bab.append("%-4s " + sep, i930());
+                    bab.append("%-4s " + sep, i930Hex());
                 }
                 // IBM 939
                 if (!encodableToI939()) {
                     bab.append("-    " + sep);
                 } else if (!decodableFromI939()) {
-                    bab.append(">%-4s" + sep, i939());
+                    bab.append(">%-4s" + sep, i939Hex());
                 } else {
-                    bab.append("%-4s " + sep, i939());
+                    bab.append("%-4s " + sep, i939Hex());
                 }
             }
         }
 
-        char kubunUnicode() {
+        int kubun() {
+            return Kubun.UNDEFINED;
+        }
+
+        int kubunUnicode() {
             if (cp < 0) {
                 // 結合文字列。
-                return '4';
+                return 4;
             } else if (0x0300 <= cp && cp <= 0x036F) {
                 // 結合文字。
-                return '3';
+                return 3;
             } else if (0x10000 <= cp) {
                 // 追加面。
-                return '2';
+                return 2;
             } else {
                 // 基本多言語面。
-                return '1';
+                return 1;
             }
         }
 
-        char kubunNormalization() {
-            if (!s.equals(nfc)) {
+        int kubunNormalization() {
+            if (!s.equals(nfc())) {
                 // NFC で変換 (非正規形)。
-                return '4';
-            } else if (!s.equals(nfkc)) {
+                return 4;
+            } else if (!s.equals(nfkc())) {
                 // NFKC で変換 (互換文字)。
                 if (isHalfwidthAndFullwidthForms(s.charAt(0))) {
-                    return '3';
+                    return 3;
                 } else {
-                    return '2';
+                    return 2;
                 }
-            } else if (!s.equals(nfd)) {
+            } else if (!s.equals(nfd())) {
                 // NFD で変換 (合成済み)。
-                return '1';
+                return 1;
             } else {
                 // 変換なし。
-                return '0';
+                return 0;
             }
         }
 
-        char kubunLevel() {
+        int kubunLevel() {
             if (decodableFromSjis2004()) {
-                String sjis2004 = toHexString(bx2);
+                String sjis2004 = toHexString(bx2());
                 if (sjis2004.compareTo("879F") < 0) {
                     // 非漢字。
-                    return '0';
+                    return 0;
                 } else if (sjis2004.compareTo("889F") < 0) {
                     // 第3水準漢字。
-                    return '3';
+                    return 3;
                 } else if (sjis2004.compareTo("9873") < 0) {
                     // 第1水準漢字。
-                    return '1';
+                    return 1;
                 } else if (sjis2004.compareTo("989F") < 0) {
                     // 第3水準漢字。
-                    return '3';
+                    return 3;
                 } else if (sjis2004.compareTo("EAA5") < 0) {
                     // 第2水準漢字。
-                    return '2';
+                    return 2;
                 } else if (sjis2004.compareTo("F040") < 0) {
                     // 第3水準漢字。
-                    return '3';
+                    return 3;
                 } else {
                     // 第4水準漢字。
-                    return '4';
+                    return 4;
                 }
             } else if (decodableFromEuc()) {
                 // 補助漢字。
-                return '5';
+                return 5;
             } else {
                 // ベンダー外字。
-                return '7';
+                return 7;
             }
         }
 
-        char kubunW31j() {
+        int kubunW31j() {
             if (decodableFromW31j()) {
-                String w31j = toHexString(bw2);
+                String w31j = toHexString(bw2());
                 if (w31j.compareTo("8740") < 0) {
                     // JIS S 0208 (非漢字)
-                    return '3';
+                    return 3;
                 } else if (w31j.compareTo("889F") < 0) {
                     // NEC特殊文字。
-                    return '4';
+                    return 4;
                 } else if (w31j.compareTo("ED40") < 0) {
                     // JIS S 0208 (第1水準・第2水準漢字)
-                    return '3';
+                    return 3;
                 } else if (w31j.compareTo("F040") < 0) {
                     // NEC選定IBM拡張文字。
-                    return '5';
+                    return 5;
                 } else if (w31j.compareTo("FA40") < 0) {
                     // ユーザー外字。
-                    return '8';
+                    return 8;
                 } else {
                     // IBM拡張文字。
-                    return '6';
+                    return 6;
                 }
-            } else if (!contains(bw2, 0x3F)) {
+            } else if (!contains(bw2(), 0x3F)) {
                 // エンコードのみ可。
-                return '7';
+                return 7;
             } else {
                 // 未定義。
-                return '9';
+                return 9;
             }
         }
 
-        char kubunKanji() {
-            Character c = KANJI_MAP.get(s);
+        int kubunKanji() {
+            Character c = kanjiMap().get(s);
             if (c != null) {
                 // 常用漢字、人名用漢字、表外漢字。
-                return c;
+                return c - '0';
             } else if (0x3400 <= cp && cp <= 0x9FFF) {
                 // CJK統合漢字。
-                return '7';
+                return 7;
             } else if (0xF900 <= cp && cp <= 0xFAFF) {
                 // CJK互換漢字。
-                return '7';
+                return 7;
             } else if (0x20000 <= cp && cp <= 0x2FA1F) {
                 // CJK統合漢字拡張、CJK互換漢字補助。
-                return '7';
+                return 7;
             } else {
                 // 非漢字。
-                return '0';
+                return 0;
             }
         }
 
@@ -1188,9 +1837,9 @@ class Charsets {
                 }
             }
             if (csv4()) {
-                bab.append(String.join(",", kubun().split(" *")) + sep);
+                bab.append(Kubun.toCsv(kubun()) + sep);
             } else {
-                bab.append("%-6s" + sep, kubun());
+                bab.append("%-6s" + sep, Kubun.toString(kubun()));
             }
 
             if (!csv2() && !csv3()) {
@@ -1217,17 +1866,17 @@ class Charsets {
                     if (!encodableToJis2()) {
                         bab.append("-      " + sep);
                     } else if (!decodableFromJis2()) {
-                        bab.append(">%-6s" + sep, jisToHexString(bj2));
+                        bab.append(">%-6s" + sep, jisToHexString(bj2()));
                     } else {
-                        bab.append("%-6s " + sep, jisToHexString(bj2));
+                        bab.append("%-6s " + sep, jisToHexString(bj2()));
                     }
                     // EUC-JP
                     if (!encodableToEuc()) {
                         bab.append("-      " + sep);
                     } else if (!decodableFromEuc()) {
-                        bab.append(">%-6s" + sep, toHexString(be2));
+                        bab.append(">%-6s" + sep, toHexString(be2()));
                     } else {
-                        bab.append("%-6s " + sep, toHexString(be2));
+                        bab.append("%-6s " + sep, toHexString(be2()));
                     }
                     if (euc < 0) {
                         bab.append("-     " + sep);
@@ -1240,9 +1889,9 @@ class Charsets {
                     if (!encodableToSjis()) {
                         bab.append("-    " + sep);
                     } else if (!decodableFromSjis()) {
-                        bab.append(">%-4s" + sep, toHexString(bs2));
+                        bab.append(">%-4s" + sep, toHexString(bs2()));
                     } else if (sjis < 0) {
-                        bab.append(":%-4s" + sep, toHexString(bs2));
+                        bab.append(":%-4s" + sep, toHexString(bs2()));
                     } else {
                         bab.append("%02X   " + sep, sjis);
                     }
@@ -1250,9 +1899,9 @@ class Charsets {
                     if (!encodableToW31j()) {
                         bab.append("-    " + sep);
                     } else if (!decodableFromW31j()) {
-                        bab.append(">%-4s" + sep, toHexString(bw2));
+                        bab.append(">%-4s" + sep, toHexString(bw2()));
                     } else {
-                        bab.append("%-4s " + sep, toHexString(bw2));
+                        bab.append("%-4s " + sep, toHexString(bw2()));
                     }
                 }
 
@@ -1270,55 +1919,58 @@ class Charsets {
                     bab.append("[%s]", s);
                 }
                 if (encodableToSjis()) {
-                    if (!nfc.equals(s)) {
-                        bab.append(" -> [%s] (NFC)", nfc);
-                    } else if (!nfkc.equals(s)) {
-                        if ("\u3099".equals(nfkc) || "\u309A".equals(nfkc)) {
+                    if (!nfc().equals(s)) {
+                        bab.append(" -> [%s] (NFC)", nfc());
+                    } else if (!nfkc().equals(s)) {
+                        if ("\u3099".equals(nfkc()) || "\u309A".equals(nfkc())) {
                             bab.append(" -> (NFKC)");
                         } else {
-                            bab.append(" -> [%s] (NFKC)", nfkc);
+                            bab.append(" -> [%s] (NFKC)", nfkc());
                         }
                     }
-                    if (variant != null
-                            && !variant[0].startsWith(nfc) && !variant[0].equals(nfkc)) {
-                        bab.append(" -> [%s]", variant[0]);
-                        if (variant[1] != null) {
-                            bab.append(" (%s)", variant[1]);
+                    if (variant() != null
+                            && !variant()[0].startsWith(nfc()) && !variant()[0].equals(nfkc())) {
+                        bab.append(" -> [%s]", variant()[0]);
+                        if (variant()[1] != null) {
+                            bab.append(" (%s)", variant()[1]);
                         }
                     }
                     if (!decodableFromSjis2004()) {
-                        bab.append(" -> %s (SJIS2004)", toHexString(bx2));
+                        bab.append(" -> %s (SJIS2004)", toHexString(bx2()));
                     }
                 }
             }
             return bab.toByteArray();
         }
 
-        String kubun() {
+        int kubun() {
             if (undefined()) {
                 // 未定義文字。
-                return "999999";
+                return Kubun.UNDEFINED;
             }
-            StringBuilder sb = new StringBuilder();
             // 基本多言語面。
-            sb.append('1');
-            sb.append(kubunNormalization());
+            int unicode = 1;
+            int standard;
+            int w31j;
             if (s.equals("\u00A5") || s.equals("\u203E")) {
                 // JIS X 0201 (ラテン文字)
-                sb.append("207");
+                standard = 2;
+                w31j = 7;
             } else if (c < 0x20 || c == 0x7F) {
                 // 制御文字。
-                sb.append("000");
+                standard = 0;
+                w31j = 0;
             } else if (c < 0x80) {
                 // US-ASCII
-                sb.append("101");
+                standard = 1;
+                w31j = 1;
             } else {
                 // JIS X 0201 (半角カナ)
-                sb.append("202");
+                standard = 2;
+                w31j = 2;
             }
             // 非漢字。
-            sb.append('0');
-            return sb.toString();
+            return Kubun.of(unicode, kubunNormalization(), standard, 0, w31j, 0);
         }
 
     }
@@ -1378,9 +2030,9 @@ class Charsets {
                 }
             }
             if (csv4()) {
-                bab.append(String.join(",", kubun().split(" *")) + sep);
+                bab.append(Kubun.toCsv(kubun()) + sep);
             } else {
-                bab.append("%-6s" + sep, kubun());
+                bab.append("%-6s" + sep, Kubun.toString(kubun()));
             }
 
             if (!csv2() && !csv3()) {
@@ -1398,26 +2050,26 @@ class Charsets {
                 if (!encodableToJis2()) {
                     bab.append("-      " + sep);
                 } else if (!decodableFromJis2()) {
-                    bab.append(">%-6s" + sep, jisToHexString(bj2));
+                    bab.append(">%-6s" + sep, jisToHexString(bj2()));
                 } else {
-                    bab.append("%-6s " + sep, jisToHexString(bj2));
+                    bab.append("%-6s " + sep, jisToHexString(bj2()));
                 }
                 // EUC-JP
                 if (!encodableToEuc()) {
                     bab.append("-      " + sep);
                 } else if (!decodableFromEuc()) {
-                    bab.append(">%-6s" + sep, toHexString(be2));
+                    bab.append(">%-6s" + sep, toHexString(be2()));
                 } else {
-                    bab.append("%-6s " + sep, toHexString(be2));
+                    bab.append("%-6s " + sep, toHexString(be2()));
                 }
                 bab.append("%04X  " + sep, euc);
                 // Shift_JIS
                 bab.append("%04X " + sep, sjis);
                 // Windows-31J
-                if (contains(bw2, 0x3F)) {
+                if (contains(bw2(), 0x3F)) {
                     bab.append("-    " + sep);
                 } else {
-                    bab.append(">%-4s" + sep, toHexString(bw2));
+                    bab.append(">%-4s" + sep, toHexString(bw2()));
                 }
 
                 appendIbm94x(bab);
@@ -1434,16 +2086,16 @@ class Charsets {
                     bab.append("[%s]", s);
                 }
                 if (encodableToSjis()) {
-                    if (!nfc.equals(s)) {
-                        bab.append(" -> [%s] (NFC)", nfc);
-                    } else if (!nfkc.equals(s)) {
-                        bab.append(" -> [%s] (NFKC)", nfkc);
+                    if (!nfc().equals(s)) {
+                        bab.append(" -> [%s] (NFC)", nfc());
+                    } else if (!nfkc().equals(s)) {
+                        bab.append(" -> [%s] (NFKC)", nfkc());
                     }
-                    if (variant != null
-                            && !variant[0].startsWith(nfc) && !variant[0].equals(nfkc)) {
-                        bab.append(" -> [%s]", variant[0]);
-                        if (variant[1] != null) {
-                            bab.append(" (%s)", variant[1]);
+                    if (variant() != null
+                            && !variant()[0].startsWith(nfc()) && !variant()[0].equals(nfkc())) {
+                        bab.append(" -> [%s]", variant()[0]);
+                        if (variant()[1] != null) {
+                            bab.append(" (%s)", variant()[1]);
                         }
                     }
                 }
@@ -1451,38 +2103,41 @@ class Charsets {
             return bab.toByteArray();
         }
 
-        String kubun() {
+        int kubun() {
             if (undefined()) {
                 // 未定義文字。
-                return "999999";
+                return Kubun.UNDEFINED;
             }
-            StringBuilder sb = new StringBuilder();
+            int unicode;
             if (!encodableToSjis()) {
                 // デコードのみ可。
-                sb.append('7');
+                unicode = 7;
             } else {
                 // 基本多言語面。
-                sb.append('1');
+                unicode = 1;
             }
-            sb.append(kubunNormalization());
+            int level;
+            int w31j;
             if (k < 16) {
                 // 非漢字。
-                if (contains(bw2, 0x3F)) {
+                level = 0;
+                if (contains(bw2(), 0x3F)) {
                     // Windows-31J 未定義。
-                    sb.append("309");
+                    w31j = 9;
                 } else {
                     // Windows-31J エンコードのみ可。
-                    sb.append("307");
+                    w31j = 7;
                 }
             } else if (k < 48) {
                 // 第1水準漢字。
-                sb.append("313");
+                level = 1;
+                w31j = 3;
             } else {
                 // 第2水準漢字。
-                sb.append("323");
+                level = 2;
+                w31j = 3;
             }
-            sb.append(kubunKanji());
-            return sb.toString();
+            return Kubun.of(unicode, kubunNormalization(), 3, level, w31j, kubunKanji());
         }
 
     }
@@ -1524,10 +2179,10 @@ class Charsets {
             }
 
             // 区分。
-            String kubun = kubun();
+            int kubun = kubun();
             if (csv()) {
                 if (csv2()) {
-                    if (undefined() || "78".indexOf(kubun.charAt(0)) != -1) {
+                    if (undefined() || Kubun.unicode(kubun) == 7 || Kubun.unicode(kubun) == 8) {
                         // 未定義。
                         bab.append("9" + sep);
                     } else if (k < 13) {
@@ -1544,30 +2199,30 @@ class Charsets {
                         bab.append("5" + sep);
                     }
                 } else {
-                    if (undefined() || "78".indexOf(kubun.charAt(0)) != -1) {
+                    if (undefined() || Kubun.unicode(kubun) == 7 || Kubun.unicode(kubun) == 8) {
                         // 未定義。
                         bab.append("99" + sep);
                     } else if (k < 13) {
                         // 非漢字。
-                        if (cp < 0xFF00 && kubun.charAt(2) == '3') {
+                        if (cp < 0xFF00 && Kubun.standard(kubun) == 3) {
                             bab.append("31" + sep);
                         } else {
-                            bab.append(kubun.charAt(2) + "2" + sep);
+                            bab.append(Kubun.standard(kubun) + "2" + sep);
                         }
                     } else if (k < 16) {
                         // NEC特殊文字。
-                        bab.append(kubun.charAt(2) + "3" + sep);
+                        bab.append(Kubun.standard(kubun) + "3" + sep);
                     } else if (k < 89) {
                         // 第1・2水準漢字。
                         bab.append("31" + sep);
                     } else {
                         // IBM拡張漢字。
-                        if (kubun.charAt(3) == '4') {
+                        if (Kubun.level(kubun) == 4) {
                             bab.append("54" + sep);
-                        } else if (kubun.charAt(2) == '5') {
+                        } else if (Kubun.standard(kubun) == 5) {
                             bab.append("64" + sep);
                         } else {
-                            bab.append(kubun.charAt(2) + "4" + sep);
+                            bab.append(Kubun.standard(kubun) + "4" + sep);
                         }
                     }
                 }
@@ -1577,9 +2232,9 @@ class Charsets {
                 }
             }
             if (csv4()) {
-                bab.append(String.join(",", kubun.split(" *")) + sep);
+                bab.append(Kubun.toCsv(kubun) + sep);
             } else {
-                bab.append("%-6s" + sep, kubun);
+                bab.append("%-6s" + sep, Kubun.toString(kubun));
             }
 
             if (!csv2() && !csv3()) {
@@ -1602,24 +2257,24 @@ class Charsets {
                     if (!encodableToJis2()) {
                         bab.append("-      " + sep);
                     } else if (!decodableFromJis2()) {
-                        bab.append(">%-6s" + sep, jisToHexString(bj2));
+                        bab.append(">%-6s" + sep, jisToHexString(bj2()));
                     } else {
-                        bab.append("%-6s " + sep, jisToHexString(bj2));
+                        bab.append("%-6s " + sep, jisToHexString(bj2()));
                     }
                     // EUC-JP
                     if (!encodableToEuc()) {
                         bab.append("-      " + sep);
                     } else if (!decodableFromEuc()) {
-                        bab.append(">%-6s" + sep, toHexString(be2));
+                        bab.append(">%-6s" + sep, toHexString(be2()));
                     } else {
-                        bab.append("%-6s " + sep, toHexString(be2));
+                        bab.append("%-6s " + sep, toHexString(be2()));
                     }
                     bab.append("-     " + sep);
                     // Shift_JIS
-                    if (contains(bx2, 0x3F) || !decodableFromSjis2004()) {
+                    if (contains(bx2(), 0x3F) || !decodableFromSjis2004()) {
                         bab.append("-    " + sep);
                     } else {
-                        bab.append("%-4s " + sep, toHexString(bx2));
+                        bab.append("%-4s " + sep, toHexString(bx2()));
                     }
                 } else {
                     // ISO-2022-JP
@@ -1627,17 +2282,17 @@ class Charsets {
                     if (!encodableToJis2()) {
                         bab.append("-      " + sep);
                     } else if (!decodableFromJis2()) {
-                        bab.append(">%-6s" + sep, jisToHexString(bj2));
+                        bab.append(">%-6s" + sep, jisToHexString(bj2()));
                     } else {
-                        bab.append("%-6s " + sep, jisToHexString(bj2));
+                        bab.append("%-6s " + sep, jisToHexString(bj2()));
                     }
                     // EUC-JP
                     if (!encodableToEuc()) {
                         bab.append("-      " + sep);
                     } else if (!decodableFromEuc()) {
-                        bab.append(">%-6s" + sep, toHexString(be2));
+                        bab.append(">%-6s" + sep, toHexString(be2()));
                     } else {
-                        bab.append("%-6s " + sep, toHexString(be2));
+                        bab.append("%-6s " + sep, toHexString(be2()));
                     }
                     bab.append("%04X  " + sep, euc);
                     // Shift_JIS
@@ -1664,21 +2319,21 @@ class Charsets {
                     bab.append("[%s]", s);
                 }
                 if (encodableToW31j()) {
-                    if (!nfc.equals(s)) {
-                        bab.append(" -> [%s] (NFC)", nfc);
-                    } else if (!nfkc.equals(s)) {
-                        bab.append(" -> [%s] (NFKC)", nfkc);
+                    if (!nfc().equals(s)) {
+                        bab.append(" -> [%s] (NFC)", nfc());
+                    } else if (!nfkc().equals(s)) {
+                        bab.append(" -> [%s] (NFKC)", nfkc());
                     }
-                    if (variant != null
-                            && !variant[0].startsWith(nfc) && !variant[0].equals(nfkc)) {
-                        bab.append(" -> [%s]", variant[0]);
-                        if (variant[1] != null) {
-                            bab.append(" (%s)", variant[1]);
+                    if (variant() != null
+                            && !variant()[0].startsWith(nfc()) && !variant()[0].equals(nfkc())) {
+                        bab.append(" -> [%s]", variant()[0]);
+                        if (variant()[1] != null) {
+                            bab.append(" (%s)", variant()[1]);
                         }
                     }
                     if ((showSjis || !encodableToSjis2004())
-                            && !contains(bx2, 0x3F) && !decodableFromSjis2004()) {
-                        bab.append(" -> %s (SJIS2004)", toHexString(bx2));
+                            && !contains(bx2(), 0x3F) && !decodableFromSjis2004()) {
+                        bab.append(" -> %s (SJIS2004)", toHexString(bx2()));
                     }
                 }
             }
@@ -1691,106 +2346,108 @@ class Charsets {
                 bab.append("-    %1$s-    %1$s", sep);
             } else {
                 // IBM 942
-                if (decode(b, IBM_942).equals(s) && !Arrays.equals(i942, b)) {
+                if (decode(b, IBM_942).equals(s) && !Arrays.equals(i942(), b)) {
                     bab.append("<%-4s" + sep, toHexString(b));
                 } else if (!encodableToI942()) {
                     bab.append("-    " + sep);
                 } else if (!decodableFromI942()) {
-                    bab.append(">%-4s" + sep, toHexString(i942));
+                    bab.append(">%-4s" + sep, toHexString(i942()));
                 } else {
-                    bab.append("%-4s " + sep, toHexString(i942));
+                    bab.append("%-4s " + sep, toHexString(i942()));
                 }
                 // IBM 943
-                if (decode(b, IBM_943).equals(s) && !Arrays.equals(i943, b)) {
+                if (decode(b, IBM_943).equals(s) && !Arrays.equals(i943(), b)) {
                     bab.append("<%-4s" + sep, toHexString(b));
                 } else if (!encodableToI943()) {
                     bab.append("-    " + sep);
                 } else if (!decodableFromI943()) {
-                    bab.append(">%-4s" + sep, toHexString(i943));
+                    bab.append(">%-4s" + sep, toHexString(i943()));
                 } else {
-                    bab.append("%-4s " + sep, toHexString(i943));
+                    bab.append("%-4s " + sep, toHexString(i943()));
                 }
             }
         }
 
-        String kubun() {
+        int kubun() {
             if (undefined()) {
                 // 未定義文字。
-                return "999999";
+                return Kubun.UNDEFINED;
             }
-            StringBuilder sb = new StringBuilder();
+            int unicode;
             if (!encodableToW31j()) {
                 // デコードのみ可。
-                sb.append('7');
+                unicode = 7;
             } else {
                 // 基本多言語面。
-                sb.append('1');
+                unicode = 1;
             }
-            sb.append(kubunNormalization());
+            int standard;
+            int level;
+            int w31j;
             if (k < 13) {
                 // 非漢字。
-                char level = kubunLevel();
+                level = kubunLevel();
                 if (ss.equals(s)) {
                     // JIS X 0208
-                    sb.append('3');
-                } else if (!csv() || level > '4') {
+                    standard = 3;
+                } else if (!csv() || level > 4) {
                     // ベンダー外字。
-                    sb.append('7');
+                    standard = 7;
                 } else {
                     // JIS X 0213
-                    sb.append('4');
+                    standard = 4;
                 }
-                sb.append(level);
                 // JIS X 0208
-                sb.append('3');
+                w31j = 3;
             } else if (k < 16) {
                 // NEC特殊文字。
-                char level = kubunLevel();
-                if (!csv() || level > '4') {
+                level = kubunLevel();
+                if (!csv() || level > 4) {
                     // ベンダー外字。
-                    sb.append('7');
+                    standard = 7;
                 } else {
                     // JIS X 0213
-                    sb.append('4');
+                    standard = 4;
                 }
-                sb.append(level);
                 // NEC特殊文字。
-                sb.append('4');
+                w31j = 4;
             } else if (k < 48) {
                 // 第1水準漢字。
-                sb.append("313");
+                standard = 3;
+                level = 1;
+                w31j = 3;
             } else if (k < 89) {
                 // 第2水準漢字。
-                sb.append("323");
+                standard = 3;
+                level = 2;
+                w31j = 3;
             } else if (k < 95) {
                 // NEC選定IBM拡張文字。
                 // ベンダー外字。
-                sb.append('7');
-                sb.append(kubunLevel());
+                standard = 7;
+                level = kubunLevel();
                 // NEC選定IBM拡張文字。
-                sb.append('5');
+                w31j = 5;
             } else if (k < 115) {
                 // ユーザー外字領域。
-                return "888888";
+                return Kubun.USER_DEFINED;
             } else {
                 // IBM拡張漢字。
-                char level = kubunLevel();
-                if (!csv() || level > '5') {
+                level = kubunLevel();
+                if (!csv() || level > 5) {
                     // ベンダー外字。
-                    sb.append('7');
-                } else if (level > '4') {
+                    standard = 7;
+                } else if (level > 4) {
                     // JIS X 0212
-                    sb.append('5');
+                    standard = 5;
                 } else {
                     // JIS X 0213
-                    sb.append('4');
+                    standard = 4;
                 }
-                sb.append(level);
                 // IBM拡張文字。
-                sb.append('6');
+                w31j = 6;
             }
-            sb.append(kubunKanji());
-            return sb.toString();
+            return Kubun.of(unicode, kubunNormalization(), standard, level, w31j, kubunKanji());
         }
 
     }
@@ -1832,14 +2489,14 @@ class Charsets {
             }
 
             // 区分。
-            String kubun = kubun();
+            int kubun = kubun();
             if (csv()) {
                 if (csv2()) {
-                    if (undefined() || "478".indexOf(kubun.charAt(0)) != -1
-                            || kubun.charAt(4) < '7') {
+                    if (undefined() || Kubun.unicode(kubun) == 4 || Kubun.unicode(kubun) == 7
+                            || Kubun.unicode(kubun) == 8 || Kubun.w31j(kubun) < 7) {
                         // 未定義。
                         bab.append("9" + sep);
-                    } else if (kubun.charAt(3) == '4') {
+                    } else if (Kubun.level(kubun) == 4) {
                         // JIS X 0213 2面
                         bab.append("7" + sep);
                     } else {
@@ -1847,24 +2504,24 @@ class Charsets {
                         bab.append("6" + sep);
                     }
                 } else {
-                    if (undefined() || "78".indexOf(kubun.charAt(0)) != -1
-                            || kubun.charAt(4) < '7') {
+                    if (undefined() || Kubun.unicode(kubun) == 7 || Kubun.unicode(kubun) == 8
+                            || Kubun.w31j(kubun) < 7) {
                         // 未定義。
                         bab.append("99" + sep);
-                    } else if (kubun.charAt(3) == '4') {
+                    } else if (Kubun.level(kubun) == 4) {
                         // JIS X 0213 (2面)
-                        if (kubun.charAt(0) == '1') {
+                        if (Kubun.unicode(kubun) == 1) {
                             bab.append("55" + sep);
                         } else {
                             bab.append("56" + sep);
                         }
                     } else {
                         // JIS X 0213 (1面)
-                        if (kubun.charAt(0) == '1') {
+                        if (Kubun.unicode(kubun) == 1) {
                             bab.append("45" + sep);
-                        } else if (kubun.charAt(0) == '2') {
+                        } else if (Kubun.unicode(kubun) == 2) {
                             bab.append("46" + sep);
-                        } else if (kubun.charAt(0) == '3') {
+                        } else if (Kubun.unicode(kubun) == 3) {
                             bab.append("47" + sep);
                         } else {
                             bab.append("49" + sep);
@@ -1877,9 +2534,9 @@ class Charsets {
                 }
             }
             if (csv4()) {
-                bab.append(String.join(",", kubun.split(" *")) + sep);
+                bab.append(Kubun.toCsv(kubun) + sep);
             } else {
-                bab.append("%-6s" + sep, kubun);
+                bab.append("%-6s" + sep, Kubun.toString(kubun));
             }
 
             if (!csv2() && !csv3()) {
@@ -1897,17 +2554,17 @@ class Charsets {
                 if (!encodableToJis2()) {
                     bab.append("-      " + sep);
                 } else if (!decodableFromJis2()) {
-                    bab.append(">%-6s" + sep, jisToHexString(bj2));
+                    bab.append(">%-6s" + sep, jisToHexString(bj2()));
                 } else {
-                    bab.append("%-6s " + sep, jisToHexString(bj2));
+                    bab.append("%-6s " + sep, jisToHexString(bj2()));
                 }
                 // EUC-JP
                 if (!encodableToEuc()) {
                     bab.append("-      " + sep);
                 } else if (!decodableFromEuc()) {
-                    bab.append(">%-6s" + sep, toHexString(be2));
+                    bab.append(">%-6s" + sep, toHexString(be2()));
                 } else {
-                    bab.append("%-6s " + sep, toHexString(be2));
+                    bab.append("%-6s " + sep, toHexString(be2()));
                 }
                 if (euc <= 0xFFFF) {
                     bab.append("%04X  " + sep, euc);
@@ -1922,12 +2579,12 @@ class Charsets {
                 }
                 // Windows-31J
                 if (!sw.equals(s)) {
-                    if (!encodableToSjis2004() || contains(bw2, 0x3F)) {
+                    if (!encodableToSjis2004() || contains(bw2(), 0x3F)) {
                         bab.append("-    " + sep);
                     } else if (!decodableFromW31j()) {
-                        bab.append(">%-4s" + sep, toHexString(bw2));
+                        bab.append(">%-4s" + sep, toHexString(bw2()));
                     } else {
-                        bab.append("%-4s " + sep, toHexString(bw2));
+                        bab.append("%-4s " + sep, toHexString(bw2()));
                     }
                 } else {
                     bab.append("%04X " + sep, sjis);
@@ -1943,53 +2600,50 @@ class Charsets {
             if (!undefined()) {
                 bab.append("[%s]", s);
                 if (encodableToSjis2004()) {
-                    if (!nfc.equals(s)) {
-                        bab.append(" -> [%s] (NFC)", nfc);
-                    } else if (!nfkc.equals(s)) {
-                        bab.append(" -> [%s] (NFKC)", nfkc);
+                    if (!nfc().equals(s)) {
+                        bab.append(" -> [%s] (NFC)", nfc());
+                    } else if (!nfkc().equals(s)) {
+                        bab.append(" -> [%s] (NFKC)", nfkc());
                     }
-                    if (variant != null
-                            && !variant[0].startsWith(nfc) && !variant[0].equals(nfkc)) {
-                        bab.append(" -> [%s]", variant[0]);
-                        if (variant[1] != null) {
-                            bab.append(" (%s)", variant[1]);
+                    if (variant() != null
+                            && !variant()[0].startsWith(nfc()) && !variant()[0].equals(nfkc())) {
+                        bab.append(" -> [%s]", variant()[0]);
+                        if (variant()[1] != null) {
+                            bab.append(" (%s)", variant()[1]);
                         }
                     }
-                    if (!contains(bw2, 0x3F) && !decodableFromW31j()) {
-                        bab.append(" -> [%s] (W31J)", decode(bw2, WINDOWS_31J));
+                    if (!contains(bw2(), 0x3F) && !decodableFromW31j()) {
+                        bab.append(" -> [%s] (W31J)", decode(bw2(), WINDOWS_31J));
                     }
                 }
             }
             return bab.toByteArray();
         }
 
-        String kubun() {
+        int kubun() {
             if (undefined()) {
                 // 未定義文字。
-                return "999999";
+                return Kubun.UNDEFINED;
             }
-            StringBuilder sb = new StringBuilder();
-            sb.append(kubunUnicode());
-            sb.append(kubunNormalization());
+            int level;
             if (m == 2) {
                 // 第4水準漢字。
-                sb.append("44");
+                level = 4;
             } else if (k < 14) {
                 // 非漢字。
-                sb.append("40");
+                level = 0;
             } else {
                 // 第3水準漢字。
-                sb.append("43");
+                level = 3;
             }
-            sb.append(kubunW31j());
-            sb.append(kubunKanji());
-            return sb.toString();
+            return Kubun.of(kubunUnicode(), kubunNormalization(), 4, level,
+                    kubunW31j(), kubunKanji());
         }
 
-        char kubunUnicode() {
+        int kubunUnicode() {
             if (!encodableToSjis2004()) {
                 // デコードのみ可。
-                return '7';
+                return 7;
             }
             return super.kubunUnicode();
         }
@@ -2015,17 +2669,17 @@ class Charsets {
 
         @Override
         boolean encodableToEuc() {
-            return Arrays.equals(be2, b);
+            return Arrays.equals(be2(), b);
         }
 
         @Override
         boolean encodableToSjis2004() {
-            return s.equals("?") || !contains(bx2, 0x3F);
+            return s.equals("?") || !contains(bx2(), 0x3F);
         }
 
         @Override
         boolean encodableToW31j() {
-            return s.equals("?") || !contains(bw2, 0x3F);
+            return s.equals("?") || !contains(bw2(), 0x3F);
         }
 
         byte[] encodedLine() {
@@ -2043,11 +2697,11 @@ class Charsets {
             }
 
             // 区分。
-            String kubun = kubun();
+            int kubun = kubun();
             if (csv()) {
                 if (csv2()) {
-                    if (undefined() || "78".indexOf(kubun.charAt(0)) != -1
-                            || kubun.charAt(3) != '5' || kubun.charAt(4) < '7') {
+                    if (undefined() || Kubun.unicode(kubun) == 7 || Kubun.unicode(kubun) == 8
+                            || Kubun.level(kubun) != 5 || Kubun.w31j(kubun) < 7) {
                         // 未定義。
                         bab.append("9" + sep);
                     } else {
@@ -2055,8 +2709,8 @@ class Charsets {
                         bab.append("9" + sep);
                     }
                 } else {
-                    if (undefined() || "78".indexOf(kubun.charAt(0)) != -1
-                            || kubun.charAt(3) != '5' || kubun.charAt(4) < '7') {
+                    if (undefined() || Kubun.unicode(kubun) == 7 || Kubun.unicode(kubun) == 8
+                            || Kubun.level(kubun) != 5 || Kubun.w31j(kubun) < 7) {
                         // 未定義。
                         bab.append("99" + sep);
                     } else {
@@ -2070,9 +2724,9 @@ class Charsets {
                 }
             }
             if (csv4()) {
-                bab.append(String.join(",", kubun.split(" *")) + sep);
+                bab.append(Kubun.toCsv(kubun) + sep);
             } else {
-                bab.append("%-6s" + sep, kubun);
+                bab.append("%-6s" + sep, Kubun.toString(kubun));
             }
 
             if (!csv2() && !csv3()) {
@@ -2090,22 +2744,22 @@ class Charsets {
                 if (!encodableToJis2()) {
                     bab.append("-      " + sep);
                 } else if (!decodableFromJis2()) {
-                    bab.append(">%-6s" + sep, jisToHexString(bj2));
+                    bab.append(">%-6s" + sep, jisToHexString(bj2()));
                 } else {
-                    bab.append("%-6s " + sep, jisToHexString(bj2));
+                    bab.append("%-6s " + sep, jisToHexString(bj2()));
                 }
                 // EUC-JP
                 if (!encodableToEuc()) {
                     bab.append("-      " + sep);
                 } else if (!decodableFromEuc()) {
-                    bab.append(">%-6s" + sep, toHexString(be2));
+                    bab.append(">%-6s" + sep, toHexString(be2()));
                 } else {
-                    bab.append("%-6s " + sep, toHexString(be2));
+                    bab.append("%-6s " + sep, toHexString(be2()));
                 }
                 if (!encodableToSjis2004() || !decodableFromSjis2004()) {
                     bab.append("-     " + sep);
                 } else {
-                    int euc2004 = sjis2004ToEuc(bx2);
+                    int euc2004 = sjis2004ToEuc(bx2());
                     if (euc2004 <= 0xFFFF) {
                         bab.append("%04X  " + sep, euc2004);
                     } else {
@@ -2116,15 +2770,15 @@ class Charsets {
                 if (!encodableToSjis2004() || !decodableFromSjis2004()) {
                     bab.append("-    " + sep);
                 } else {
-                    bab.append("%-4s " + sep, toHexString(bx2));
+                    bab.append("%-4s " + sep, toHexString(bx2()));
                 }
                 // Windows-31J
                 if (!encodableToW31j()) {
                     bab.append("-    " + sep);
                 } else if (!decodableFromW31j()) {
-                    bab.append(">%-4s" + sep, toHexString(bw2));
+                    bab.append(">%-4s" + sep, toHexString(bw2()));
                 } else {
-                    bab.append("%-4s " + sep, toHexString(bw2));
+                    bab.append("%-4s " + sep, toHexString(bw2()));
                 }
 
                 appendIbm94x(bab);
@@ -2137,16 +2791,16 @@ class Charsets {
             if (!undefined()) {
                 bab.append("[%s]", s);
                 if (encodableToEuc()) {
-                    if (!nfc.equals(s)) {
-                        bab.append(" -> [%s] (NFC)", nfc);
-                    } else if (!nfkc.equals(s)) {
-                        bab.append(" -> [%s] (NFKC)", nfkc);
+                    if (!nfc().equals(s)) {
+                        bab.append(" -> [%s] (NFC)", nfc());
+                    } else if (!nfkc().equals(s)) {
+                        bab.append(" -> [%s] (NFKC)", nfkc());
                     }
-                    if (variant != null
-                            && !variant[0].startsWith(nfc) && !variant[0].equals(nfkc)) {
-                        bab.append(" -> [%s]", variant[0]);
-                        if (variant[1] != null) {
-                            bab.append(" (%s)", variant[1]);
+                    if (variant() != null
+                            && !variant()[0].startsWith(nfc()) && !variant()[0].equals(nfkc())) {
+                        bab.append(" -> [%s]", variant()[0]);
+                        if (variant()[1] != null) {
+                            bab.append(" (%s)", variant()[1]);
                         }
                     }
                 }
@@ -2154,26 +2808,20 @@ class Charsets {
             return bab.toByteArray();
         }
 
-        String kubun() {
+        int kubun() {
             if (undefined()) {
                 // 未定義文字。
-                return "999999";
+                return Kubun.UNDEFINED;
             }
-            StringBuilder sb = new StringBuilder();
-            sb.append(kubunUnicode());
-            sb.append(kubunNormalization());
-            // JIS X 0202
-            sb.append('5');
-            sb.append(kubunLevel());
-            sb.append(kubunW31j());
-            sb.append(kubunKanji());
-            return sb.toString();
+            // JIS X 0212
+            return Kubun.of(kubunUnicode(), kubunNormalization(), 5, kubunLevel(),
+                    kubunW31j(), kubunKanji());
         }
 
-        char kubunUnicode() {
+        int kubunUnicode() {
             if (!encodableToEuc()) {
                 // デコードのみ可。
-                return '7';
+                return 7;
             }
             return super.kubunUnicode();
         }
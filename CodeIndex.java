@@ -0,0 +1,353 @@
+/*
+ * CodeIndex.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.util.*;
+
+// 符号から文字コード表の行を引く索引 (列ごと)。
+// 符号が密な列は直接参照の表、それ以外は最小完全ハッシュ (CHD) を使う。
+class CodeIndex {
+
+    // CharTable の符号の列に続く列。
+    static final int UTF16 = CharTable.CODE_COLUMNS;
+    static final int UTF8 = CharTable.CODE_COLUMNS + 1;
+    static final int COLUMNS = CharTable.CODE_COLUMNS + 2;
+
+    static final String[] NAMES = {
+        "JIS", "EUC", "SJIS", "2004", "W31J", "I942", "I943", "I930", "I939", "UTF-16", "UTF-8"
+    };
+
+    // 直接参照の表にする範囲 (キーの数に対する倍率)。
+    static final int DENSITY = 8;
+
+    static final int NOT_FOUND = -1;
+
+    // キーなし。
+    static final long NONE = Long.MIN_VALUE;
+
+    final Index[] indexes = new Index[COLUMNS];
+
+    CodeIndex(CharTable table) {
+        CharTable.Cursor cursor = table.cursor();
+        char[] chars = new char[256];
+        long[] utf16 = new long[table.size()];
+        long[] utf8 = new long[table.size()];
+        while (cursor.next()) {
+            int n = cursor.getChars(CharTable.VALUE, chars, 0);
+            utf16[cursor.row()] = utf16Key(chars, 0, n);
+            utf8[cursor.row()] = utf8Key(new String(chars, 0, n).getBytes(UTF_8));
+        }
+        for (int column = 0; column < CharTable.CODE_COLUMNS; ++column) {
+            int[] codes = table.column(column);
+            long[] keys = new long[codes.length];
+            for (int row = 0; row < codes.length; ++row) {
+                keys[row] = (codes[row] == CharTable.NONE) ? NONE : codes[row];
+            }
+            indexes[column] = index(keys, true);
+        }
+        indexes[UTF16] = index(utf16, false);
+        indexes[UTF8] = index(utf8, false);
+    }
+
+    // 共有する表 (CharTable.get) の索引 (初めて使うときに一度だけ作る)。
+    static CodeIndex get() {
+        return Holder.INDEX;
+    }
+
+    static class Holder {
+
+        static final CodeIndex INDEX = new CodeIndex(CharTable.get());
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        CharTable table = CharTable.load();
+        long start = System.nanoTime();
+        CodeIndex index = new CodeIndex(table);
+        out.printf("構築: %d ms%n", (System.nanoTime() - start) / 1000000);
+        out.println();
+        out.println("列     キー数 方式   表の大きさ");
+        out.println("------ ------ ------ ----------");
+        for (int column = 0; column < COLUMNS; ++column) {
+            Index i = index.indexes[column];
+            out.printf("%-6s %6d %-6s %10d%n", NAMES[column], i.size(),
+                    (i instanceof Direct) ? "直接" : "CHD", i.slots());
+        }
+
+        // 全行を引き直す (同じ符号の行は最初の行になる)。
+        int errors = 0;
+        CharTable.Cursor cursor = table.cursor();
+        while (cursor.next()) {
+            for (int column = 0; column < CharTable.CODE_COLUMNS; ++column) {
+                int code = cursor.code(column);
+                if (code == CharTable.NONE) {
+                    continue;
+                }
+                int row = index.find(column, code);
+                if (row == NOT_FOUND || table.codes[column][row] != code) {
+                    out.printf("%s %s: %d%n", NAMES[column], CharTable.toHexString(code), row);
+                    ++errors;
+                }
+            }
+            String s = cursor.string(CharTable.VALUE);
+            int row = index.findUtf16(s);
+            if (row == NOT_FOUND || row > cursor.row()) {
+                out.printf("UTF-16 %s: %d%n", s, row);
+                ++errors;
+            }
+            row = index.findUtf8(s.getBytes(UTF_8));
+            if (row == NOT_FOUND || row > cursor.row()) {
+                out.printf("UTF-8 %s: %d%n", s, row);
+                ++errors;
+            }
+        }
+        out.println();
+        out.printf("不一致: %d%n", errors);
+    }
+
+    // 符号の列のキーは CharTable の符号の値。
+    int find(int column, long key) {
+        return indexes[column].get(key);
+    }
+
+    int findUtf16(String s) {
+        long key = utf16Key(s.toCharArray(), 0, s.length());
+        return (key == NONE) ? NOT_FOUND : indexes[UTF16].get(key);
+    }
+
+    int findUtf8(byte[] bytes) {
+        long key = utf8Key(bytes);
+        return (key == NONE) ? NOT_FOUND : indexes[UTF8].get(key);
+    }
+
+    // UTF-16 (4文字まで) を1つの long にする。
+    static long utf16Key(char[] chars, int off, int len) {
+        if (len == 0 || 4 < len) {
+            return NONE;
+        }
+        long key = 0;
+        for (int i = off; i < off + len; ++i) {
+            key = key << 16 | chars[i];
+        }
+        return key;
+    }
+
+    // UTF-8 (7バイトまで) を長さと合わせて1つの long にする。
+    static long utf8Key(byte[] bytes) {
+        if (bytes.length == 0 || 7 < bytes.length) {
+            return NONE;
+        }
+        long key = bytes.length;
+        for (byte b : bytes) {
+            key = key << 8 | (b & 0xFF);
+        }
+        return key;
+    }
+
+    // 同じキーの行が複数ある場合は最初の行。
+    static Index index(long[] rowKeys, boolean code) {
+        LinkedHashMap<Long, Integer> map = new LinkedHashMap<>();
+        for (int row = 0; row < rowKeys.length; ++row) {
+            if (rowKeys[row] != NONE) {
+                map.putIfAbsent(rowKeys[row], row);
+            }
+        }
+        long[] keys = new long[map.size()];
+        int[] rows = new int[map.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> e : map.entrySet()) {
+            keys[i] = e.getKey();
+            rows[i] = e.getValue();
+            ++i;
+        }
+        if (code) {
+            Direct direct = Direct.build(keys, rows);
+            if (direct != null) {
+                return direct;
+            }
+        }
+        return Chd.build(keys, rows);
+    }
+
+    abstract static class Index {
+
+        abstract int get(long key);
+
+        abstract int size();
+
+        abstract int slots();
+
+    }
+
+    // 直接参照の表 (符号の値の下位24ビットで引き、キーを確かめる)。
+    static class Direct extends Index {
+
+        final int min;
+        final long[] keys;
+        final int[] rows;
+        final int size;
+
+        Direct(int min, long[] keys, int[] rows, int size) {
+            this.min = min;
+            this.keys = keys;
+            this.rows = rows;
+            this.size = size;
+        }
+
+        // 下位24ビットが重複するか、範囲が疎な場合は null。
+        static Direct build(long[] keys, int[] rows) {
+            if (keys.length == 0) {
+                return null;
+            }
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (long key : keys) {
+                int code = (int) key & 0xFFFFFF;
+                min = Math.min(min, code);
+                max = Math.max(max, code);
+            }
+            long range = (long) max - min + 1;
+            if (range > (long) keys.length * DENSITY) {
+                return null;
+            }
+            long[] table = new long[(int) range];
+            int[] tableRows = new int[(int) range];
+            Arrays.fill(table, NONE);
+            for (int i = 0; i < keys.length; ++i) {
+                int slot = ((int) keys[i] & 0xFFFFFF) - min;
+                if (table[slot] != NONE) {
+                    return null;
+                }
+                table[slot] = keys[i];
+                tableRows[slot] = rows[i];
+            }
+            return new Direct(min, table, tableRows, keys.length);
+        }
+
+        @Override
+        int get(long key) {
+            int slot = ((int) key & 0xFFFFFF) - min;
+            if (slot < 0 || keys.length <= slot || keys[slot] != key) {
+                return NOT_FOUND;
+            }
+            return rows[slot];
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        int slots() {
+            return keys.length;
+        }
+
+    }
+
+    // 最小完全ハッシュ (Compress, Hash and Displace)。
+    // バケットごとの種でキーを空きスロットに振り分ける。
+    static class Chd extends Index {
+
+        // 1バケットあたりのキーの数 (平均)。
+        static final int BUCKET_SIZE = 3;
+
+        final int[] seeds;
+        final long[] keys;
+        final int[] rows;
+
+        Chd(int[] seeds, long[] keys, int[] rows) {
+            this.seeds = seeds;
+            this.keys = keys;
+            this.rows = rows;
+        }
+
+        static Chd build(long[] keys, int[] rows) {
+            int n = keys.length;
+            int buckets = n / BUCKET_SIZE + 1;
+            List<List<Integer>> members = new ArrayList<>();
+            for (int b = 0; b < buckets; ++b) {
+                members.add(new ArrayList<>());
+            }
+            for (int i = 0; i < n; ++i) {
+                members.get(slot(keys[i], 0, buckets)).add(i);
+            }
+            // 大きいバケットから振り分ける。
+            Integer[] order = new Integer[buckets];
+            for (int b = 0; b < buckets; ++b) {
+                order[b] = b;
+            }
+            Arrays.sort(order, (b1, b2) -> members.get(b2).size() - members.get(b1).size());
+
+            int[] seeds = new int[buckets];
+            long[] slotKeys = new long[Math.max(n, 1)];
+            int[] slotRows = new int[slotKeys.length];
+            boolean[] used = new boolean[slotKeys.length];
+            int[] slots = new int[n];
+            for (int b : order) {
+                List<Integer> bucket = members.get(b);
+                if (bucket.isEmpty()) {
+                    break;
+                }
+                for (int seed = 1; ; ++seed) {
+                    int k = 0;
+                    for (; k < bucket.size(); ++k) {
+                        int slot = slot(keys[bucket.get(k)], seed, n);
+                        if (used[slot]) {
+                            break;
+                        }
+                        used[slot] = true;
+                        slots[k] = slot;
+                    }
+                    if (k == bucket.size()) {
+                        seeds[b] = seed;
+                        for (int j = 0; j < k; ++j) {
+                            int i = bucket.get(j);
+                            slotKeys[slots[j]] = keys[i];
+                            slotRows[slots[j]] = rows[i];
+                        }
+                        break;
+                    }
+                    // やり直し。
+                    for (int j = 0; j < k; ++j) {
+                        used[slots[j]] = false;
+                    }
+                }
+            }
+            if (n == 0) {
+                slotKeys[0] = NONE;
+            }
+            return new Chd(seeds, slotKeys, slotRows);
+        }
+
+        static int slot(long key, int seed, int size) {
+            long h = key * 0x9E3779B97F4A7C15L + seed * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+            h *= 0x94D049BB133111EBL;
+            h ^= h >>> 29;
+            return (int) ((h >>> 1) % size);
+        }
+
+        @Override
+        int get(long key) {
+            int slot = slot(key, seeds[slot(key, 0, seeds.length)], keys.length);
+            return (keys[slot] == key) ? rows[slot] : NOT_FOUND;
+        }
+
+        @Override
+        int size() {
+            return keys.length;
+        }
+
+        @Override
+        int slots() {
+            return keys.length;
+        }
+
+    }
+
+}
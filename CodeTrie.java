@@ -0,0 +1,243 @@
+/*
+ * CodeTrie.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import java.io.*;
+import java.util.*;
+
+// コードポイント → 値 の3段のトライ (同じ内容のブロックは共有する)。
+// index1[cp >> 11] + (cp >> 5 & 63) で index2 を引き、index2 + (cp & 31) で data を引く。
+class CodeTrie {
+
+    static final int SHIFT_1 = 11;
+    static final int SHIFT_2 = 5;
+    static final int INDEX2_BLOCK = 1 << (SHIFT_1 - SHIFT_2);
+    static final int DATA_BLOCK = 1 << SHIFT_2;
+    static final int INDEX2_MASK = INDEX2_BLOCK - 1;
+    static final int DATA_MASK = DATA_BLOCK - 1;
+    static final int INDEX1_LENGTH = (Character.MAX_CODE_POINT + 1) >> SHIFT_1;
+
+    final int[] index1;
+    final int[] index2;
+    final int[] data;
+    // 値のないコードポイントの値。
+    final int defaultValue;
+
+    CodeTrie(int[] index1, int[] index2, int[] data, int defaultValue) {
+        this.index1 = index1;
+        this.index2 = index2;
+        this.data = data;
+        this.defaultValue = defaultValue;
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        CharTable table = CharTable.load();
+        out.println("表         値の数  バイト数   平坦な配列");
+        out.println("---------- ------ --------- ----------");
+        for (int column = 0; column < CharTable.CODE_COLUMNS; ++column) {
+            print(out, CharTable.CODE_NAMES[column], fromColumn(table, column));
+        }
+        print(out, "W31J codec", Windows31jCodec.ENCODE_TRIE);
+        print(out, "2004 codec", JisX0213Codec.ENCODE_TRIE);
+
+        // 検索時間 (文字コード表の文字を順に引く)。
+        int[] cps = new int[table.size()];
+        CharTable.Cursor cursor = table.cursor();
+        while (cursor.next()) {
+            cps[cursor.row()] = cursor.codePoint();
+        }
+        CodeTrie trie = JisX0213Codec.ENCODE_TRIE;
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int cp : cps) {
+            map.put(cp, trie.get(cp));
+        }
+        for (int round = 0; round < 5; ++round) {
+            long sum = 0;
+            long start = System.nanoTime();
+            for (int n = 0; n < 100; ++n) {
+                for (int cp : cps) {
+                    sum += trie.get(cp);
+                }
+            }
+            long trieTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int n = 0; n < 100; ++n) {
+                for (int cp : cps) {
+                    sum -= map.get(cp);
+                }
+            }
+            long mapTime = System.nanoTime() - start;
+            out.printf("検索: トライ %.2f ns、HashMap %.2f ns (%d)%n",
+                    (double) trieTime / (100 * cps.length), (double) mapTime / (100 * cps.length), sum);
+        }
+    }
+
+    static void print(PrintStream out, String name, CodeTrie trie) {
+        out.printf("%-10s %6d %9d %10d%n", name, trie.count(), trie.byteSize(),
+                (Character.MAX_CODE_POINT + 1) * 4L);
+    }
+
+    // 文字コード表の列 (1文字の行のみ) から作る。値は CharTable の符号、なしは NONE。
+    static CodeTrie fromColumn(CharTable table, int column) {
+        Builder builder = new Builder(CharTable.NONE);
+        CharTable.Cursor cursor = table.cursor();
+        while (cursor.next()) {
+            int code = cursor.code(column);
+            int cp = cursor.codePoint();
+            String s = cursor.string(CharTable.VALUE);
+            if (code != CharTable.NONE && Character.charCount(cp) == s.length()
+                    && builder.get(cp) == CharTable.NONE) {
+                builder.set(cp, code);
+            }
+        }
+        return builder.build();
+    }
+
+    int get(int cp) {
+        if ((cp >>> SHIFT_1) >= INDEX1_LENGTH) {
+            return defaultValue;
+        }
+        return data[index2[index1[cp >> SHIFT_1] + ((cp >> SHIFT_2) & INDEX2_MASK)] + (cp & DATA_MASK)];
+    }
+
+    // cps[i] の値を values[i] に変えたトライ (変えるブロックだけを複製する)。
+    CodeTrie withValues(int[] cps, int[] values) {
+        int[] index1 = this.index1.clone();
+        IntList index2 = new IntList(this.index2.clone());
+        IntList data = new IntList(this.data.clone());
+        for (int i = 0; i < cps.length; ++i) {
+            int cp = cps[i];
+            int i1 = cp >> SHIFT_1;
+            if (index1[i1] < this.index2.length) {
+                IntList block = new IntList(Arrays.copyOfRange(index2.a, index1[i1], index1[i1] + INDEX2_BLOCK));
+                index1[i1] = index2.size();
+                index2.addAll(block);
+            }
+            int i2 = index1[i1] + ((cp >> SHIFT_2) & INDEX2_MASK);
+            if (index2.a[i2] < this.data.length) {
+                IntList block = new IntList(Arrays.copyOfRange(data.a, index2.a[i2], index2.a[i2] + DATA_BLOCK));
+                index2.a[i2] = data.size();
+                data.addAll(block);
+            }
+            data.a[index2.a[i2] + (cp & DATA_MASK)] = values[i];
+        }
+        return new CodeTrie(index1, index2.toArray(), data.toArray(), defaultValue);
+    }
+
+    // 値のあるコードポイントの数。
+    int count() {
+        int n = 0;
+        for (int cp = 0; cp <= Character.MAX_CODE_POINT; ++cp) {
+            if (get(cp) != defaultValue) {
+                ++n;
+            }
+        }
+        return n;
+    }
+
+    // 配列の大きさの合計 (ヘッダーを除く)。
+    long byteSize() {
+        return (index1.length + index2.length + data.length) * 4L;
+    }
+
+    static class Builder {
+
+        final int defaultValue;
+        final int[] values = new int[Character.MAX_CODE_POINT + 1];
+
+        Builder(int defaultValue) {
+            this.defaultValue = defaultValue;
+            Arrays.fill(values, defaultValue);
+        }
+
+        Builder set(int cp, int value) {
+            values[cp] = value;
+            return this;
+        }
+
+        int get(int cp) {
+            return values[cp];
+        }
+
+        CodeTrie build() {
+            // data のブロック (すべて既定値のブロックを先頭に置く)。
+            IntList data = new IntList();
+            Map<IntList, Integer> dataBlocks = new HashMap<>();
+            int[] blockOffsets = new int[values.length / DATA_BLOCK];
+            for (int b = 0; b < blockOffsets.length; ++b) {
+                blockOffsets[b] = offset(data, dataBlocks, values, b * DATA_BLOCK, DATA_BLOCK);
+            }
+            // index2 のブロック。
+            IntList index2 = new IntList();
+            Map<IntList, Integer> index2Blocks = new HashMap<>();
+            int[] index1 = new int[INDEX1_LENGTH];
+            for (int i = 0; i < index1.length; ++i) {
+                index1[i] = offset(index2, index2Blocks, blockOffsets, i * INDEX2_BLOCK, INDEX2_BLOCK);
+            }
+            return new CodeTrie(index1, index2.toArray(), data.toArray(), defaultValue);
+        }
+
+        // a[off]〜a[off + len - 1] と同じブロックの位置 (なければ list に追加する)。
+        static int offset(IntList list, Map<IntList, Integer> blocks, int[] a, int off, int len) {
+            IntList block = new IntList(Arrays.copyOfRange(a, off, off + len));
+            Integer offset = blocks.get(block);
+            if (offset == null) {
+                offset = list.size();
+                list.addAll(block);
+                blocks.put(block, offset);
+            }
+            return offset;
+        }
+
+    }
+
+    // ブロックの比較と連結に使う int の列。
+    static class IntList {
+
+        int[] a;
+        int size;
+
+        IntList() {
+            this.a = new int[1024];
+        }
+
+        IntList(int[] a) {
+            this.a = a;
+            this.size = a.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void addAll(IntList list) {
+            if (a.length < size + list.size) {
+                a = Arrays.copyOf(a, Math.max(size + list.size, a.length * 2));
+            }
+            System.arraycopy(list.a, 0, a, size, list.size);
+            size += list.size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(a, size);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof IntList) && Arrays.equals(a, 0, size, ((IntList) o).a, 0, ((IntList) o).size);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 1;
+            for (int i = 0; i < size; ++i) {
+                h = 31 * h + a[i];
+            }
+            return h;
+        }
+
+    }
+
+}
@@ -0,0 +1,279 @@
+/*
+ * CodecStats.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.management.*;
+
+// 文字コードごとの変換件数 (詳細区分の Windows-31J・水準の桁ごと、置き換えた文字)。
+// LongAdder で数え、JMX の MBean (charsets:type=CodecStats,name=文字コード) と snapshot で参照する。
+// コーデックはエンコードした符号の範囲で区分を決めて局所変数で数え、1回の呼び出しごとにまとめて記録する
+// (記録しない場合は null の確認のみ)。Windows-31J の桁は符号の範囲 (IBM 拡張は FA〜FC) を表す。
+class CodecStats implements DynamicMBean {
+
+    // 区分の桁の値 (0〜9)。
+    static final int DIGITS = 10;
+
+    // Windows-31J の桁。
+    static final int CONTROL = 0;
+    static final int ASCII = 1;
+    static final int JIS_X0201 = 2;
+    static final int JIS_X0208 = 3;
+    static final int NEC_SPECIAL = 4;
+    static final int NEC_SELECTED_IBM = 5;
+    static final int IBM_EXTENSION = 6;
+    static final int ENCODE_ONLY = 7;
+    static final int USER_DEFINED = 8;
+    static final int UNDEFINED = 9;
+    // 水準の桁 (ほかは Windows-31J の桁と同じ値)。
+    static final int NON_KANJI = 0;
+    static final int LEVEL_1 = 1;
+    static final int LEVEL_2 = 2;
+
+    // MBean の属性名 (null は使わない値)。
+    static final String[] W31J_NAMES = {
+        "W31jControl", "W31jAscii", "W31jJisX0201", "W31jJisX0208", "W31jNecSpecial",
+        "W31jNecSelectedIbm", "W31jIbmExtension", "W31jEncodeOnly", "W31jUserDefined", "W31jUndefined"
+    };
+    static final String[] LEVEL_NAMES = {
+        "LevelNonKanji", "Level1", "Level2", "Level3", "Level4",
+        "LevelSupplementary", null, "LevelVendor", "LevelUserDefined", "LevelUndefined"
+    };
+    static final String CHARS = "EncodedChars";
+    static final String ENCODE_REPLACED = "EncodeReplaced";
+    static final String DECODE_REPLACED = "DecodeReplaced";
+
+    static final Map<String, CodecStats> INSTANCES = new ConcurrentHashMap<>();
+
+    final String name;
+
+    // エンコードした文字数 (詳細区分の Windows-31J の桁 * DIGITS + 水準の桁ごと)。
+    // 外字の異体字シーケンスは1文字、置き換えた文字は未定義として数える。桁ごとの件数と合計は snapshot で求める。
+    final LongAdder[] counts = adders(DIGITS * DIGITS);
+    // エンコードできずに代替バイトにした文字数、デコードできずに U+FFFD にした文字数。
+    final LongAdder encodeReplaced = new LongAdder();
+    final LongAdder decodeReplaced = new LongAdder();
+
+    CodecStats(String name) {
+        this.name = name;
+    }
+
+    static LongAdder[] adders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; ++i) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    // 文字コードごとに1つ (初めて使うときに作り、MBean を登録する)。
+    static CodecStats get(String name) {
+        CodecStats stats = INSTANCES.get(name);
+        return (stats != null) ? stats : INSTANCES.computeIfAbsent(name, CodecStats::register);
+    }
+
+    static CodecStats register(String name) {
+        CodecStats stats = new CodecStats(name);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats, stats.objectName());
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+        return stats;
+    }
+
+    ObjectName objectName() throws MalformedObjectNameException {
+        return new ObjectName("charsets", new Hashtable<>(Map.of("type", "CodecStats", "name", ObjectName.quote(name))));
+    }
+
+    // Windows-31J の符号 → 水準の桁 (recordVendor で引く、往復変換できない符号は未定義)。
+    static class Levels {
+
+        static final byte[] BY_CODE = new byte[0x10000];
+        static {
+            Arrays.fill(BY_CODE, (byte) UNDEFINED);
+            CharTable.Cursor cursor = CharTable.get().cursor();
+            while (cursor.next()) {
+                int code = cursor.code(CharTable.W31J);
+                if (code != CharTable.NONE && cursor.decodable(CharTable.W31J)) {
+                    BY_CODE[code & 0xFFFF] = (byte) Kubun.level(cursor.kubun());
+                }
+            }
+        }
+
+    }
+
+    // 1回のエンコードの件数 (NEC 特殊文字・IBM 拡張は recordVendor で記録済み)。
+    void recordEncode(int control, int ascii, int kana, int nonKanji, int level1, int level2,
+            int encodeOnly, int userDefined, int replaced) {
+        add(CONTROL, NON_KANJI, control);
+        add(ASCII, NON_KANJI, ascii);
+        add(JIS_X0201, NON_KANJI, kana);
+        add(JIS_X0208, NON_KANJI, nonKanji);
+        add(JIS_X0208, LEVEL_1, level1);
+        add(JIS_X0208, LEVEL_2, level2);
+        add(ENCODE_ONLY, NON_KANJI, encodeOnly);
+        add(USER_DEFINED, USER_DEFINED, userDefined);
+        add(UNDEFINED, UNDEFINED, replaced);
+        if (replaced != 0) {
+            encodeReplaced.add(replaced);
+        }
+    }
+
+    void add(int w31j, int level, int n) {
+        if (n != 0) {
+            counts[w31j * DIGITS + level].add(n);
+        }
+    }
+
+    // NEC 特殊文字 (87XX)、NEC 選定 IBM 拡張 (ED・EE)、IBM 拡張 (FA〜FC) の1文字。
+    // まれなため、その場で水準を符号から引いて加算する (ほかは JIS X 0208 の未定義の区)。
+    void recordVendor(int code) {
+        int c1 = code >> 8;
+        int w31j = (c1 == 0x87) ? NEC_SPECIAL
+                : ((c1 == 0xED || c1 == 0xEE) ? NEC_SELECTED_IBM : ((c1 >= 0xFA) ? IBM_EXTENSION : JIS_X0208));
+        counts[w31j * DIGITS + Levels.BY_CODE[code]].increment();
+    }
+
+    // dst[off]〜dst[end - 1] にデコードした (U+FFFD はデコードできなかった文字)。
+    void recordDecode(char[] dst, int off, int end) {
+        int replaced = 0;
+        for (int i = off; i < end; ++i) {
+            if (dst[i] == Windows31jCodec.UNDEFINED) {
+                ++replaced;
+            }
+        }
+        if (replaced != 0) {
+            decodeReplaced.add(replaced);
+        }
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+        encodeReplaced.reset();
+        decodeReplaced.reset();
+    }
+
+    // ある時点の件数 (記録中に取った場合、項目の間で多少ずれることがある)。
+    static class Snapshot {
+
+        final String name;
+        final long chars;
+        final long[] w31j = new long[DIGITS];
+        final long[] level = new long[DIGITS];
+        final long encodeReplaced;
+        final long decodeReplaced;
+
+        Snapshot(CodecStats stats) {
+            this.name = stats.name;
+            long chars = 0;
+            for (int category = 0; category < stats.counts.length; ++category) {
+                long count = stats.counts[category].sum();
+                w31j[category / DIGITS] += count;
+                level[category % DIGITS] += count;
+                chars += count;
+            }
+            this.chars = chars;
+            this.encodeReplaced = stats.encodeReplaced.sum();
+            this.decodeReplaced = stats.decodeReplaced.sum();
+        }
+
+        // 属性名 → 件数。
+        Map<String, Long> toMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            map.put(CHARS, chars);
+            for (int i = 0; i < DIGITS; ++i) {
+                map.put(W31J_NAMES[i], w31j[i]);
+            }
+            for (int i = 0; i < DIGITS; ++i) {
+                if (LEVEL_NAMES[i] != null) {
+                    map.put(LEVEL_NAMES[i], level[i]);
+                }
+            }
+            map.put(ENCODE_REPLACED, encodeReplaced);
+            map.put(DECODE_REPLACED, decodeReplaced);
+            return map;
+        }
+
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Long value = snapshot().toMap().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Long> map = snapshot().toMap();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            if (map.containsKey(attribute)) {
+                list.add(new Attribute(attribute, map.get(attribute)));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if ("reset".equals(actionName) && (params == null || params.length == 0)) {
+            reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String attribute : snapshot().toMap().keySet()) {
+            attributes.add(new MBeanAttributeInfo(attribute, "long", attribute, true, false, false));
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo(
+                "reset", "reset", new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+        return new MBeanInfo(getClass().getName(), "CodecStats " + name,
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[] {reset}, null);
+    }
+
+    // 標準入力の行を Windows-31J にエンコードし、件数を出力する。
+    public static void main(String[] args) throws IOException {
+        CodecStats stats = get(Windows31jCodec.WINDOWS_31J.name());
+        Windows31jCodec codec = new Windows31jCodec(null, MappingProfile.JDK, stats);
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            codec.encode(line);
+        }
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        for (Map.Entry<String, Long> e : stats.snapshot().toMap().entrySet()) {
+            out.printf("%-18s %10d%n", e.getKey(), e.getValue());
+        }
+    }
+
+}
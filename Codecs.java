@@ -0,0 +1,117 @@
+/*
+ * Codecs.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.CodingErrorAction.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+// スレッドごとに CharsetEncoder・CharsetDecoder とバッファを使い回す。
+// String.getBytes(Charset)、new String(byte[], Charset) と同じ結果になる。
+class Codecs {
+
+    static final ThreadLocal<Codecs> LOCAL = ThreadLocal.withInitial(Codecs::new);
+
+    final Map<Charset, CharsetEncoder> encoders = new HashMap<>();
+    final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+
+    CharBuffer chars = CharBuffer.allocate(64);
+    ByteBuffer bytes = ByteBuffer.allocate(64);
+
+    static Codecs get() {
+        return LOCAL.get();
+    }
+
+    static byte[] encode(String s, Charset charset) {
+        ByteBuffer bb = get().encodeToBuffer(s, charset);
+        byte[] result = new byte[bb.remaining()];
+        bb.get(result);
+        return result;
+    }
+
+    static String decode(byte[] bytes, Charset charset) {
+        CharBuffer cb = get().decodeToBuffer(bytes, 0, bytes.length, charset);
+        return new String(cb.array(), cb.position(), cb.remaining());
+    }
+
+    CharsetEncoder encoder(Charset charset) {
+        CharsetEncoder encoder = encoders.get(charset);
+        if (encoder == null) {
+            encoder = charset.newEncoder()
+                    .onMalformedInput(REPLACE)
+                    .onUnmappableCharacter(REPLACE);
+            encoders.put(charset, encoder);
+        }
+        return encoder.reset();
+    }
+
+    CharsetDecoder decoder(Charset charset) {
+        CharsetDecoder decoder = decoders.get(charset);
+        if (decoder == null) {
+            decoder = charset.newDecoder()
+                    .onMalformedInput(REPLACE)
+                    .onUnmappableCharacter(REPLACE);
+            decoders.put(charset, decoder);
+        }
+        return decoder.reset();
+    }
+
+    // s をエンコードする (結果は次の呼び出しまで有効)。
+    ByteBuffer encodeToBuffer(String s, Charset charset) {
+        CharsetEncoder encoder = encoder(charset);
+        int len = s.length();
+        if (chars.capacity() < len) {
+            chars = CharBuffer.allocate(Math.max(len, chars.capacity() * 2));
+        }
+        chars.clear();
+        s.getChars(0, len, chars.array(), 0);
+        chars.limit(len);
+        bytes.clear();
+        CoderResult cr = encoder.encode(chars, bytes, true);
+        while (cr.isOverflow()) {
+            bytes = grow(bytes);
+            cr = encoder.encode(chars, bytes, true);
+        }
+        cr = encoder.flush(bytes);
+        while (cr.isOverflow()) {
+            bytes = grow(bytes);
+            cr = encoder.flush(bytes);
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    // src をデコードする (結果は次の呼び出しまで有効)。
+    CharBuffer decodeToBuffer(byte[] src, int off, int len, Charset charset) {
+        CharsetDecoder decoder = decoder(charset);
+        ByteBuffer in = ByteBuffer.wrap(src, off, len);
+        chars.clear();
+        CoderResult cr = decoder.decode(in, chars, true);
+        while (cr.isOverflow()) {
+            chars = grow(chars);
+            cr = decoder.decode(in, chars, true);
+        }
+        cr = decoder.flush(chars);
+        while (cr.isOverflow()) {
+            chars = grow(chars);
+            cr = decoder.flush(chars);
+        }
+        chars.flip();
+        return chars;
+    }
+
+    static ByteBuffer grow(ByteBuffer bb) {
+        ByteBuffer larger = ByteBuffer.allocate(bb.capacity() * 2);
+        bb.flip();
+        return larger.put(bb);
+    }
+
+    static CharBuffer grow(CharBuffer cb) {
+        CharBuffer larger = CharBuffer.allocate(cb.capacity() * 2);
+        cb.flip();
+        return larger.put(cb);
+    }
+
+}
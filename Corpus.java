@@ -0,0 +1,223 @@
+/*
+ * Corpus.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// 文字の分類と割合を指定したベンチマーク用の文章 (乱数の種が同じなら同じ文章)。
+class Corpus {
+
+    // 文字の分類。
+    static final int ASCII = 0;
+    static final int KANA = 1;
+    static final int NON_KANJI = 2;
+    static final int LEVEL1 = 3;
+    static final int LEVEL2 = 4;
+    static final int NEC = 5;
+    static final int IBM = 6;
+    static final int LEVEL3 = 7;
+    static final int LEVEL4 = 8;
+    static final int SEQUENCE = 9;
+    static final int CLASSES = 10;
+
+    static final String[] CLASS_NAMES = {
+        "ascii", "kana", "nonkanji", "level1", "level2", "nec", "ibm", "level3", "level4", "sequence"
+    };
+
+    // 分類ごとの割合 (%)。
+    static final String[] PROFILE_NAMES = {"ascii", "kanji", "vendor"};
+    static final int[][] PROFILE_MIXES = {
+        // ASCII が大半 (ログ等)。
+        {85, 2, 7, 5, 1, 0, 0, 0, 0, 0},
+        // 漢字の多い文章。
+        {5, 0, 30, 50, 10, 0, 0, 3, 1, 1},
+        // NEC特殊文字・IBM拡張文字を含む文章。
+        {30, 5, 20, 20, 5, 10, 10, 0, 0, 0}
+    };
+
+    // 文字列を作るときの文字コード (すべての文字を含める)。
+    static final int UNICODE = -1;
+
+    // 行の区切り (文字の並びの値)。
+    static final int NEW_LINE = -1;
+    // 行の長さ (文字数)。
+    static final int MIN_LINE = 20;
+    static final int MAX_LINE = 100;
+
+    final CharTable table;
+    // 分類ごとの行 (同じ文字は最初の行のみ)。
+    final int[][] rows = new int[CLASSES][];
+
+    Corpus(CharTable table) {
+        this.table = table;
+        List<List<Integer>> lists = new ArrayList<>();
+        for (int i = 0; i < CLASSES; ++i) {
+            lists.add(new ArrayList<>());
+        }
+        Set<String> seen = new HashSet<>();
+        CharTable.Cursor cursor = table.cursor();
+        while (cursor.next()) {
+            int c = classOf(cursor.kind());
+            if (c >= 0 && seen.add(cursor.string(CharTable.VALUE))) {
+                lists.get(c).add(cursor.row());
+            }
+        }
+        for (int i = 0; i < CLASSES; ++i) {
+            rows[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String profile = PROFILE_NAMES[0];
+        int[] mix = PROFILE_MIXES[0];
+        long seed = 1;
+        int length = 1000000;
+        String prefix = "corpus";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("-profile".equals(args[i])) {
+                profile = args[i + 1];
+                mix = profile(profile);
+            } else if ("-mix".equals(args[i])) {
+                profile = "mix";
+                mix = parseMix(args[i + 1]);
+            } else if ("-seed".equals(args[i])) {
+                seed = Long.parseLong(args[i + 1]);
+            } else if ("-size".equals(args[i])) {
+                length = Integer.parseInt(args[i + 1]);
+            } else if ("-out".equals(args[i])) {
+                prefix = args[i + 1];
+            } else {
+                throw new IllegalArgumentException("option: " + args[i]);
+            }
+        }
+
+        Corpus corpus = new Corpus(CharTable.load());
+        int[] sequence = corpus.generate(mix, seed, length);
+        write(Paths.get(prefix + "-" + profile + ".utf8"),
+                Codecs.encode(corpus.text(sequence, UNICODE), UTF_8));
+        for (int column = 0; column < CharTable.CODE_COLUMNS; ++column) {
+            String ext = CharTable.CODE_NAMES[column].toLowerCase();
+            write(Paths.get(prefix + "-" + profile + "." + ext),
+                    Codecs.encode(corpus.text(sequence, column), CharTable.charset(column)));
+        }
+    }
+
+    static void write(Path path, byte[] bytes) throws IOException {
+        Files.write(path, bytes);
+        System.out.printf("%-24s %10d%n", path, bytes.length);
+    }
+
+    // 行の区分から文字の分類を決める (対象外は -1)。
+    static int classOf(long kind) {
+        int kubun = CharTable.kubun(kind);
+        if (kubun == Kubun.UNDEFINED || kubun == Kubun.USER_DEFINED) {
+            return -1;
+        }
+        int unicode = Kubun.unicode(kubun);
+        int standard = Kubun.standard(kubun);
+        int level = Kubun.level(kubun);
+        int w31j = Kubun.w31j(kubun);
+        if (unicode == 7) {
+            // デコードのみ可。
+            return -1;
+        } else if (unicode == 4) {
+            return SEQUENCE;
+        } else if (w31j == 4) {
+            return NEC;
+        } else if (w31j == 5 || w31j == 6) {
+            return IBM;
+        } else if (standard == 1) {
+            return ASCII;
+        } else if (standard == 2 && w31j == 2) {
+            return KANA;
+        } else if (standard == 3) {
+            return (level == 1) ? LEVEL1 : ((level == 2) ? LEVEL2 : NON_KANJI);
+        } else if (standard == 4 && level == 3) {
+            return LEVEL3;
+        } else if (standard == 4 && level == 4) {
+            return LEVEL4;
+        }
+        return -1;
+    }
+
+    static int[] profile(String name) {
+        for (int i = 0; i < PROFILE_NAMES.length; ++i) {
+            if (PROFILE_NAMES[i].equals(name)) {
+                return PROFILE_MIXES[i];
+            }
+        }
+        throw new IllegalArgumentException("profile: " + name);
+    }
+
+    // "ascii=80,level1=20" の形式。
+    static int[] parseMix(String spec) {
+        int[] mix = new int[CLASSES];
+        for (String item : spec.split(",")) {
+            int eq = item.indexOf('=');
+            int c = (eq < 0) ? -1 : Arrays.asList(CLASS_NAMES).indexOf(item.substring(0, eq));
+            if (c < 0) {
+                throw new IllegalArgumentException("mix: " + item);
+            }
+            mix[c] = Integer.parseInt(item.substring(eq + 1));
+        }
+        return mix;
+    }
+
+    // length 文字 (行の区切りを含む) の行の並びを作る。
+    int[] generate(int[] mix, long seed, int length) {
+        int total = 0;
+        for (int c = 0; c < CLASSES; ++c) {
+            if (mix[c] < 0 || (mix[c] > 0 && rows[c].length == 0)) {
+                throw new IllegalArgumentException("mix: " + CLASS_NAMES[c] + "=" + mix[c]);
+            }
+            total += mix[c];
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("mix: empty");
+        }
+        Random random = new Random(seed);
+        int[] sequence = new int[length];
+        int line = MIN_LINE + random.nextInt(MAX_LINE - MIN_LINE + 1);
+        for (int i = 0; i < length; ++i) {
+            if (--line < 0) {
+                sequence[i] = NEW_LINE;
+                line = MIN_LINE + random.nextInt(MAX_LINE - MIN_LINE + 1);
+                continue;
+            }
+            int r = random.nextInt(total);
+            int c = 0;
+            while (r >= mix[c]) {
+                r -= mix[c++];
+            }
+            sequence[i] = rows[c][random.nextInt(rows[c].length)];
+        }
+        return sequence;
+    }
+
+    // 行の並びを文字列にする (column でエンコードできない文字は除く)。
+    String text(int[] sequence, int column) {
+        StringBuilder sb = new StringBuilder(sequence.length * 2);
+        char[] chars = new char[16];
+        CharTable.Cursor cursor = table.cursor();
+        for (int row : sequence) {
+            if (row == NEW_LINE) {
+                sb.append('\n');
+                continue;
+            }
+            cursor.moveTo(row);
+            if (column == UNICODE || cursor.code(column) != CharTable.NONE) {
+                sb.append(chars, 0, cursor.getChars(CharTable.VALUE, chars, 0));
+            }
+        }
+        return sb.toString();
+    }
+
+    String text(String profile, long seed, int length, int column) {
+        return text(generate(profile(profile), seed, length), column);
+    }
+
+}
@@ -0,0 +1,525 @@
+/*
+ * EbcdicRecordCodec.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.*;
+
+// 固定長の EBCDIC (IBM-930・IBM-939) レコードの項目ごとのデコード・エンコード。
+// 項目の位置・長さ・型はレイアウトで指定し、デコード結果は Record に再利用する。
+class EbcdicRecordCodec {
+
+    // 項目の型。
+    // 1バイト文字と SO/SI で囲んだ2バイト文字。
+    static final int MIXED = 0;
+    // 2バイト文字のみ (SO/SI なし)。
+    static final int DBCS = 1;
+    // ゾーン10進数 (最後のバイトのゾーン部が符号)。
+    static final int ZONED = 2;
+    // 使わない (エンコード時は空白)。
+    static final int FILLER = 3;
+
+    static final String[] TYPE_NAMES = {"MIXED", "DBCS", "ZONED", "FILLER"};
+
+    static final byte SO = 0x0E;
+    static final byte SI = 0x0F;
+    static final byte SPACE = 0x40;
+    // ゾーン10進数の符号。
+    static final int ZONE_PLUS = 0xC0;
+    static final int ZONE_MINUS = 0xD0;
+    static final int ZONE_UNSIGNED = 0xF0;
+    // long に収まる桁数。
+    static final int MAX_DIGITS = 18;
+
+    // デコードできない文字。
+    static final char UNDEFINED = '\uFFFD';
+    // エンコードできない文字。
+    static final int UNMAPPABLE = -1;
+    // エンコード値の2バイト文字の印。
+    static final int DOUBLE = 0x10000;
+    // エンコードできない文字の代替 ('?'、'？')。
+    static final byte REPLACEMENT = 0x6F;
+    static final char DOUBLE_REPLACEMENT = '\uFF1F';
+
+    // 文字コードごとの変換表。
+    static final Map<String, Tables> TABLES = new ConcurrentHashMap<>();
+
+    final Tables tables;
+    final Field[] fields;
+    // レコードの長さ (バイト数)。
+    final int length;
+
+    EbcdicRecordCodec(String charsetName, List<Field> fields) {
+        this.tables = tables(charsetName);
+        this.fields = fields.toArray(new Field[0]);
+        int length = 0;
+        for (Field field : this.fields) {
+            length = Math.max(length, field.offset + field.length);
+        }
+        this.length = length;
+    }
+
+    // 項目の位置・長さ・型。
+    static class Field {
+
+        final String name;
+        final int offset;
+        final int length;
+        final int type;
+
+        Field(String name, int offset, int length, int type) {
+            if (offset < 0 || length <= 0 || type < MIXED || FILLER < type
+                    || (type == DBCS && length % 2 != 0) || (type == ZONED && length > MAX_DIGITS)) {
+                throw new IllegalArgumentException("field: " + name);
+            }
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.type = type;
+        }
+
+    }
+
+    // 1レコード分の項目の値 (レコードごとに再利用する)。
+    static class Record {
+
+        final EbcdicRecordCodec codec;
+        // 項目 i の文字は chars[base[i]] 〜 chars[ends[i] - 1]。
+        final char[] chars;
+        final int[] base;
+        final int[] ends;
+        final long[] numbers;
+
+        Record(EbcdicRecordCodec codec) {
+            this.codec = codec;
+            int n = codec.fields.length;
+            this.base = new int[n];
+            this.ends = new int[n];
+            this.numbers = new long[n];
+            int total = 0;
+            for (int i = 0; i < n; ++i) {
+                // 1バイトが1文字を超えることはない。
+                base[i] = total;
+                ends[i] = total;
+                total += codec.fields[i].length;
+            }
+            this.chars = new char[total];
+        }
+
+        int length(int field) {
+            return ends[field] - base[field];
+        }
+
+        String string(int field) {
+            return new String(chars, base[field], length(field));
+        }
+
+        int getChars(int field, char[] dst, int dpos) {
+            System.arraycopy(chars, base[field], dst, dpos, length(field));
+            return dpos + length(field);
+        }
+
+        long number(int field) {
+            return numbers[field];
+        }
+
+        // 長さが項目に収まらない場合はエンコード時にエラー。
+        void set(int field, CharSequence s) {
+            int n = s.length();
+            if (n > codec.fields[field].length) {
+                throw new IllegalArgumentException("field: " + codec.fields[field].name);
+            }
+            for (int i = 0; i < n; ++i) {
+                chars[base[field] + i] = s.charAt(i);
+            }
+            ends[field] = base[field] + n;
+        }
+
+        void set(int field, long number) {
+            numbers[field] = number;
+        }
+
+    }
+
+    // デコード・エンコードの表。
+    static class Tables {
+
+        // 1バイト文字。
+        final char[] single = new char[0x100];
+        // 2バイト文字 (SO/SI を除いた符号)。
+        final char[] dbcs = new char[0x10000];
+        // コードポイント → 1バイト文字、DOUBLE | 2バイト文字。
+        final CodeTrie encode;
+        // 2バイト文字の空白と代替文字。
+        final int dbcsSpace;
+        final int dbcsReplacement;
+
+        Tables(Charset charset) {
+            Arrays.fill(single, UNDEFINED);
+            Arrays.fill(dbcs, UNDEFINED);
+            CharsetDecoder decoder = charset.newDecoder();
+            for (int b = 0x00; b <= 0xFF; ++b) {
+                if (b != SO && b != SI) {
+                    single[b] = decode(decoder, new byte[] {(byte) b});
+                }
+            }
+            for (int b1 = 0x40; b1 <= 0xFE; ++b1) {
+                for (int b2 = 0x40; b2 <= 0xFE; ++b2) {
+                    dbcs[b1 << 8 | b2] = decode(decoder, new byte[] {SO, (byte) b1, (byte) b2, SI});
+                }
+            }
+
+            CodeTrie.Builder builder = new CodeTrie.Builder(UNMAPPABLE);
+            CharsetEncoder encoder = charset.newEncoder();
+            CharBuffer in = CharBuffer.allocate(1);
+            ByteBuffer out = ByteBuffer.allocate(8);
+            for (int c = 0x0000; c <= 0xFFFF; ++c) {
+                if (Character.isSurrogate((char) c)) {
+                    continue;
+                }
+                in.clear().put((char) c).flip();
+                out.clear();
+                encoder.reset();
+                if (encoder.encode(in, out, true).isUnderflow() && encoder.flush(out).isUnderflow()) {
+                    out.flip();
+                    if (out.remaining() == 1 && out.get(0) != SO && out.get(0) != SI) {
+                        builder.set(c, out.get(0) & 0xFF);
+                    } else if (out.remaining() == 4 && out.get(0) == SO && out.get(3) == SI) {
+                        builder.set(c, DOUBLE | (out.get(1) & 0xFF) << 8 | (out.get(2) & 0xFF));
+                    }
+                }
+            }
+            this.encode = builder.build();
+            this.dbcsSpace = encode.get('\u3000') & 0xFFFF;
+            this.dbcsReplacement = encode.get(DOUBLE_REPLACEMENT) & 0xFFFF;
+        }
+
+        static char decode(CharsetDecoder decoder, byte[] bytes) {
+            decoder.reset();
+            CharBuffer out = CharBuffer.allocate(4);
+            if (decoder.decode(ByteBuffer.wrap(bytes), out, true).isUnderflow() && out.position() == 1) {
+                return out.get(0);
+            }
+            return UNDEFINED;
+        }
+
+    }
+
+    // 作った表は変更しないため、スレッド間で共有する。
+    static Tables tables(String charsetName) {
+        Tables tables = TABLES.get(charsetName);
+        return (tables != null)
+                ? tables : TABLES.computeIfAbsent(charsetName, name -> new Tables(Charset.forName(name)));
+    }
+
+    // "名前 位置 長さ 型" の行 (位置は 0 から)。
+    static List<Field> parse(List<String> lines) {
+        Pattern p = Pattern.compile(" *(\\S+) +(\\d+) +(\\d+) +([A-Z]+) *(?:#.*)?");
+        List<Field> fields = new ArrayList<>();
+        for (String line : lines) {
+            Matcher m = p.matcher(line);
+            if (m.matches()) {
+                int type = Arrays.asList(TYPE_NAMES).indexOf(m.group(4));
+                if (type < 0) {
+                    throw new IllegalArgumentException("type: " + m.group(4));
+                }
+                fields.add(new Field(m.group(1), Integer.parseInt(m.group(2)),
+                        Integer.parseInt(m.group(3)), type));
+            } else if (!line.isBlank() && !line.trim().startsWith("#")) {
+                throw new IllegalArgumentException("line: " + line);
+            }
+        }
+        return fields;
+    }
+
+    static List<Field> load(Path path) throws IOException {
+        return parse(Files.readAllLines(path, UTF_8));
+    }
+
+    public static void main(String[] args) throws IOException {
+        String layout = "layout.txt";
+        String charsetName = "x-IBM930";
+        boolean encode = false;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("-layout".equals(args[i])) {
+                layout = args[i + 1];
+            } else if ("-charset".equals(args[i])) {
+                charsetName = args[i + 1];
+            } else if ("-mode".equals(args[i])) {
+                encode = "encode".equals(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("option: " + args[i]);
+            }
+        }
+
+        EbcdicRecordCodec codec = new EbcdicRecordCodec(charsetName, load(Paths.get(layout)));
+        Record record = codec.newRecord();
+        byte[] bytes = new byte[codec.length];
+        if (encode) {
+            // タブ区切りの行 (FILLER 以外の項目) → レコード
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out));
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] values = line.split("\t", -1);
+                int column = 0;
+                for (int i = 0; i < codec.fields.length; ++i) {
+                    int type = codec.fields[i].type;
+                    String value = (type == FILLER || column >= values.length) ? "" : values[column++];
+                    if (type == ZONED) {
+                        record.set(i, value.isEmpty() ? 0 : Long.parseLong(value));
+                    } else if (type != FILLER) {
+                        record.set(i, value);
+                    }
+                }
+                codec.encode(record, bytes, 0);
+                out.write(bytes);
+            }
+            out.flush();
+        } else {
+            // レコード → タブ区切りの行 (末尾にレコードの長さに満たないバイトがあればエラー)
+            InputStream in = new BufferedInputStream(System.in);
+            PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false, "UTF-8");
+            StringBuilder sb = new StringBuilder();
+            int n;
+            while ((n = in.readNBytes(bytes, 0, bytes.length)) > 0) {
+                if (n < bytes.length) {
+                    out.flush();
+                    throw new EOFException("record: " + n + " / " + bytes.length + " bytes");
+                }
+                codec.decode(bytes, 0, record);
+                sb.setLength(0);
+                String sep = "";
+                for (int i = 0; i < codec.fields.length; ++i) {
+                    if (codec.fields[i].type == FILLER) {
+                        continue;
+                    }
+                    sb.append(sep);
+                    sep = "\t";
+                    if (codec.fields[i].type == ZONED) {
+                        sb.append(record.number(i));
+                    } else {
+                        sb.append(record.chars, record.base[i], record.length(i));
+                    }
+                }
+                out.println(sb);
+            }
+            out.flush();
+        }
+    }
+
+    Record newRecord() {
+        return new Record(this);
+    }
+
+    int fieldIndex(String name) {
+        for (int i = 0; i < fields.length; ++i) {
+            if (fields[i].name.equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("field: " + name);
+    }
+
+    // src[off] からの1レコードをデコードする (文字の項目は末尾の空白を除く)。
+    void decode(byte[] src, int off, Record record) {
+        char[] chars = record.chars;
+        for (int f = 0; f < fields.length; ++f) {
+            Field field = fields[f];
+            int i = off + field.offset;
+            int end = i + field.length;
+            int dpos = record.base[f];
+            switch (field.type) {
+            case MIXED:
+                dpos = decodeMixed(src, i, end, chars, dpos);
+                while (dpos > record.base[f] && chars[dpos - 1] == ' ') {
+                    --dpos;
+                }
+                break;
+            case DBCS:
+                char[] dbcs = tables.dbcs;
+                for (; i < end; i += 2) {
+                    chars[dpos++] = dbcs[(src[i] & 0xFF) << 8 | (src[i + 1] & 0xFF)];
+                }
+                while (dpos > record.base[f] && chars[dpos - 1] == '\u3000') {
+                    --dpos;
+                }
+                break;
+            case ZONED:
+                record.numbers[f] = decodeZoned(src, i, end, field);
+                break;
+            default:
+                break;
+            }
+            record.ends[f] = dpos;
+        }
+    }
+
+    // SO/SI で1バイト文字と2バイト文字を切り替える (項目の終わりで1バイト文字に戻る)。
+    int decodeMixed(byte[] src, int i, int end, char[] dst, int dpos) {
+        char[] single = tables.single;
+        char[] dbcs = tables.dbcs;
+        boolean shifted = false;
+        while (i < end) {
+            int b = src[i++] & 0xFF;
+            if (b == SO) {
+                shifted = true;
+            } else if (b == SI) {
+                shifted = false;
+            } else if (!shifted) {
+                dst[dpos++] = single[b];
+            } else if (i < end) {
+                dst[dpos++] = dbcs[b << 8 | (src[i++] & 0xFF)];
+            } else {
+                dst[dpos++] = UNDEFINED;
+            }
+        }
+        return dpos;
+    }
+
+    // すべて空白の項目は 0 とする (値を入れていないレコード)。
+    static long decodeZoned(byte[] src, int i, int end, Field field) {
+        if (isBlank(src, i, end)) {
+            return 0;
+        }
+        long value = 0;
+        int zone = ZONE_UNSIGNED;
+        for (; i < end; ++i) {
+            int b = src[i] & 0xFF;
+            int digit = b & 0x0F;
+            zone = b & 0xF0;
+            if (digit > 9 || (i < end - 1 && zone != ZONE_UNSIGNED)) {
+                throw new IllegalArgumentException("field: " + field.name);
+            }
+            value = value * 10 + digit;
+        }
+        if (zone == ZONE_MINUS || zone == 0xB0) {
+            return -value;
+        } else if (zone == ZONE_PLUS || zone == ZONE_UNSIGNED || zone == 0xA0 || zone == 0xE0) {
+            return value;
+        }
+        throw new IllegalArgumentException("field: " + field.name);
+    }
+
+    static boolean isBlank(byte[] src, int i, int end) {
+        for (; i < end; ++i) {
+            if (src[i] != SPACE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // record を dst[off] からの1レコードにエンコードする (項目の残りは空白、数値は 0 で埋める)。
+    void encode(Record record, byte[] dst, int off) {
+        for (int f = 0; f < fields.length; ++f) {
+            Field field = fields[f];
+            int dpos = off + field.offset;
+            int end = dpos + field.length;
+            switch (field.type) {
+            case MIXED:
+                dpos = encodeMixed(record.chars, record.base[f], record.ends[f], dst, dpos, end, field);
+                Arrays.fill(dst, dpos, end, SPACE);
+                break;
+            case DBCS:
+                dpos = encodeDbcs(record.chars, record.base[f], record.ends[f], dst, dpos, end, field);
+                while (dpos < end) {
+                    dst[dpos++] = (byte) (tables.dbcsSpace >> 8);
+                    dst[dpos++] = (byte) tables.dbcsSpace;
+                }
+                break;
+            case ZONED:
+                encodeZoned(record.numbers[f], dst, dpos, end, field);
+                break;
+            default:
+                Arrays.fill(dst, dpos, end, SPACE);
+                break;
+            }
+        }
+    }
+
+    // SI まで項目に収まらない場合はエラー。
+    int encodeMixed(char[] src, int i, int end, byte[] dst, int dpos, int dend, Field field) {
+        CodeTrie encode = tables.encode;
+        boolean shifted = false;
+        while (i < end) {
+            char c = src[i++];
+            int v = encode.get(c);
+            if (v == UNMAPPABLE) {
+                // サロゲートペアは1文字として置き換える。
+                if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(src[i])) {
+                    ++i;
+                }
+                v = REPLACEMENT;
+            }
+            // 書き込む前に、切り替えの SI・SO を含めて項目に収まるか確かめる。
+            if (v < DOUBLE) {
+                if (dpos + (shifted ? 2 : 1) > dend) {
+                    throw new IllegalArgumentException("field: " + field.name);
+                }
+                if (shifted) {
+                    dst[dpos++] = SI;
+                    shifted = false;
+                }
+                dst[dpos++] = (byte) v;
+            } else {
+                // 最後の SI の分を残す。
+                if (dpos + (shifted ? 3 : 4) > dend) {
+                    throw new IllegalArgumentException("field: " + field.name);
+                }
+                if (!shifted) {
+                    dst[dpos++] = SO;
+                    shifted = true;
+                }
+                dst[dpos++] = (byte) (v >> 8);
+                dst[dpos++] = (byte) v;
+            }
+        }
+        if (shifted) {
+            dst[dpos++] = SI;
+        }
+        return dpos;
+    }
+
+    int encodeDbcs(char[] src, int i, int end, byte[] dst, int dpos, int dend, Field field) {
+        CodeTrie encode = tables.encode;
+        while (i < end) {
+            char c = src[i++];
+            int v = encode.get(c);
+            if (v < DOUBLE) {
+                if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(src[i])) {
+                    ++i;
+                }
+                v = tables.dbcsReplacement;
+            }
+            if (dpos + 2 > dend) {
+                throw new IllegalArgumentException("field: " + field.name);
+            }
+            dst[dpos++] = (byte) (v >> 8);
+            dst[dpos++] = (byte) v;
+        }
+        return dpos;
+    }
+
+    static void encodeZoned(long value, byte[] dst, int dpos, int end, Field field) {
+        long rest = Math.abs(value);
+        for (int i = end - 1; i >= dpos; --i) {
+            dst[i] = (byte) (ZONE_UNSIGNED | (int) (rest % 10));
+            rest /= 10;
+        }
+        if (rest != 0 || value == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("field: " + field.name);
+        }
+        if (value < 0) {
+            dst[end - 1] = (byte) (ZONE_MINUS | (dst[end - 1] & 0x0F));
+        }
+    }
+
+}
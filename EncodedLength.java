@@ -0,0 +1,270 @@
+/*
+ * EncodedLength.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// エンコードせずにエンコード後のバイト数を求める (JDK の String.getBytes と同じ長さ)。
+// 文字ごとのバイト数と状態 (ISO-2022-JP のエスケープシーケンス、EBCDIC の SO/SI) の表を引く。
+class EncodedLength {
+
+    static final int UTF8 = 0;
+    static final int JIS = 1;
+    static final int EUC = 2;
+    static final int SJIS = 3;
+    static final int SJIS_2004 = 4;
+    static final int W31J = 5;
+    static final int I930 = 6;
+    static final int I939 = 7;
+    static final int ENCODINGS = 8;
+
+    static final String[] NAMES = {
+        "UTF-8", "JIS", "EUC", "SJIS", "2004", "W31J", "I930", "I939"
+    };
+
+    static final String[] CHARSET_NAMES = {
+        "UTF-8", "ISO-2022-JP", "EUC-JP", "Shift_JIS", "x-SJIS_0213", "Windows-31J", "x-IBM930", "x-IBM939"
+    };
+
+    static final byte ESC = 0x1B;
+    static final byte SO = 0x0E;
+    static final byte SI = 0x0F;
+
+    // 状態を切り替えるバイト列 (0 番目が初期状態)。
+    static final byte[][][] DESIGNATIONS = {
+        {},
+        {{ESC, '(', 'B'}, {ESC, '(', 'J'}, {ESC, '(', 'I'}, {ESC, '$', '@'}, {ESC, '$', 'B'}},
+        {},
+        {},
+        {},
+        {},
+        {{SI}, {SO}},
+        {{SI}, {SO}}
+    };
+
+    // 表の値 (状態 << 4 | バイト数)。
+    static final int WIDTH_MASK = 0xF;
+    static final int STATE_SHIFT = 4;
+    // 状態を変えない (エンコードできない文字の代替バイト列)。
+    static final int KEEP = 0xF;
+
+    // 初めて使うときに一度だけ作る。
+    static final Map<Integer, EncodedLength> INSTANCES = new ConcurrentHashMap<>();
+
+    final int encoding;
+    // コードポイント → 状態とバイト数。
+    final CodeTrie table;
+    // 状態を切り替えるバイト数。
+    final int[] designations;
+    // エンコードできない文字 (追加面の文字を含む) の値。
+    final int unmappable;
+
+    EncodedLength(int encoding) {
+        this.encoding = encoding;
+        byte[][] designations = DESIGNATIONS[encoding];
+        this.designations = new int[designations.length];
+        for (int i = 0; i < designations.length; ++i) {
+            this.designations[i] = designations[i].length;
+        }
+        if (encoding == UTF8) {
+            // 不正なサロゲートは '?'。
+            CodeTrie.Builder builder = new CodeTrie.Builder(4);
+            for (int c = 0x0000; c <= 0xFFFF; ++c) {
+                builder.set(c, (c < 0x80) ? 1 : ((c < 0x800) ? 2 : (Character.isSurrogate((char) c) ? 1 : 3)));
+            }
+            this.table = builder.build();
+            this.unmappable = 1;
+            return;
+        }
+
+        CharsetEncoder encoder = Charset.forName(CHARSET_NAMES[encoding]).newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharsetEncoder strict = Charset.forName(CHARSET_NAMES[encoding]).newEncoder();
+        int unmappableChar = 0;
+        while (Character.isSurrogate((char) unmappableChar) || strict.canEncode((char) unmappableChar)) {
+            ++unmappableChar;
+        }
+        // 代替バイト列 (エンコードできない文字と不正なサロゲートは別の扱いの場合がある)。
+        this.unmappable = value(encoder, String.valueOf((char) unmappableChar), KEEP);
+        int malformed = value(encoder, "\uD800", KEEP);
+        CodeTrie.Builder builder = new CodeTrie.Builder(unmappable);
+        for (int c = 0x0000; c <= 0xFFFF; ++c) {
+            if (Character.isSurrogate((char) c)) {
+                builder.set(c, malformed);
+            } else if (strict.canEncode((char) c)) {
+                builder.set(c, value(encoder, String.valueOf((char) c), 0));
+            }
+        }
+        // 追加面の文字は Shift_JIS-2004 のみエンコードできる。
+        if (encoding == SJIS_2004) {
+            for (int cp = 0x10000; cp <= Character.MAX_CODE_POINT; ++cp) {
+                if (JisX0213Codec.ENCODE_TRIE.get(cp) != JisX0213Codec.UNMAPPABLE) {
+                    builder.set(cp, value(encoder, new String(Character.toChars(cp)), 0));
+                }
+            }
+        }
+        this.table = builder.build();
+    }
+
+    // 1文字だけをエンコードしたバイト列から状態とバイト数を求める。
+    // 状態を切り替えていなければ state とする。
+    int value(CharsetEncoder encoder, String s, int state) {
+        ByteBuffer bb;
+        try {
+            bb = encoder.reset().encode(CharBuffer.wrap(s));
+        } catch (CharacterCodingException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[][] designations = DESIGNATIONS[encoding];
+        int width = bb.remaining();
+        for (int i = designations.length - 1; i > 0; --i) {
+            byte[] d = designations[i];
+            // 切り替えと初期状態への戻しを除く。
+            int w = width - d.length - designations[0].length;
+            if (w > 0 && startsWith(bb, d)) {
+                return i << STATE_SHIFT | w;
+            }
+        }
+        return state << STATE_SHIFT | width;
+    }
+
+    static boolean startsWith(ByteBuffer bb, byte[] prefix) {
+        return bb.remaining() >= prefix.length && bb.slice(0, prefix.length).equals(ByteBuffer.wrap(prefix));
+    }
+
+    static EncodedLength get(int encoding) {
+        EncodedLength el = INSTANCES.get(encoding);
+        return (el != null) ? el : INSTANCES.computeIfAbsent(encoding, EncodedLength::new);
+    }
+
+    static EncodedLength get(String name) {
+        int encoding = Arrays.asList(NAMES).indexOf(name);
+        if (encoding < 0) {
+            throw new IllegalArgumentException("encoding: " + name);
+        }
+        return get(encoding);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] encodings = new int[ENCODINGS];
+        for (int i = 0; i < ENCODINGS; ++i) {
+            encodings[i] = i;
+        }
+        // 指定した場合はバイト数の代わりに切り詰めた文字数を出力する。
+        long truncate = -1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("-encodings".equals(args[i])) {
+                String[] names = args[i + 1].split(",");
+                encodings = new int[names.length];
+                for (int j = 0; j < names.length; ++j) {
+                    encodings[j] = get(names[j]).encoding;
+                }
+            } else if ("-truncate".equals(args[i])) {
+                truncate = Long.parseLong(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("option: " + args[i]);
+            }
+        }
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        for (int encoding : encodings) {
+            out.printf("%5s ", NAMES[encoding]);
+        }
+        out.println();
+        String line;
+        while ((line = in.readLine()) != null) {
+            for (int encoding : encodings) {
+                EncodedLength el = get(encoding);
+                out.printf("%5d ", (truncate < 0) ? el.length(line) : el.truncate(line, truncate));
+            }
+            out.println(line);
+        }
+    }
+
+    // s をエンコードしたバイト数。
+    long length(CharSequence s) {
+        return (encoding == UTF8) ? utf8Length(s) : scan(s, Long.MAX_VALUE, false);
+    }
+
+    // s をエンコードしたバイト数が max 以下かどうか (超えた時点で打ち切る)。
+    boolean fits(CharSequence s, long max) {
+        return scan(s, max, false) <= max;
+    }
+
+    // エンコードしたバイト数が max 以下になる先頭の文字数 (s.subSequence(0, 戻り値) が切り出す範囲)。
+    // サロゲートペア、Shift_JIS-2004 の結合文字列は分けない。
+    int truncate(CharSequence s, long max) {
+        return (int) scan(s, max, true);
+    }
+
+    // 1文字 (サロゲートペア・結合文字列を含む) ずつバイト数を足す。
+    // 初期状態に戻すバイト数を含めて max を超えた時点で打ち切り、
+    // truncate が true ならそれまでの文字数、false ならバイト数を返す。
+    long scan(CharSequence s, long max, boolean truncate) {
+        CodeTrie table = this.table;
+        boolean sequences = (encoding == SJIS_2004);
+        long length = 0;
+        int state = 0;
+        int n = s.length();
+        int i = 0;
+        while (i < n) {
+            char c = s.charAt(i);
+            int v = table.get(c);
+            int next = i + 1;
+            int matched;
+            if (sequences && JisX0213Codec.isStarter(c)
+                    && (matched = JisX0213Codec.SEQUENCES.match(s, i, n)) >= 0) {
+                v = 2;
+                next = i + (matched >>> 16);
+            } else if (Character.isHighSurrogate(c) && next < n && Character.isLowSurrogate(s.charAt(next))) {
+                v = table.get(Character.toCodePoint(c, s.charAt(next++)));
+            }
+            int nextState = v >>> STATE_SHIFT;
+            if (nextState != state && nextState != KEEP) {
+                length += designations[nextState];
+                state = nextState;
+            }
+            length += v & WIDTH_MASK;
+            long reset = (state == 0) ? 0 : designations[0];
+            if (length + reset > max) {
+                return truncate ? i : length + reset;
+            }
+            i = next;
+        }
+        if (state != 0) {
+            length += designations[0];
+        }
+        return truncate ? n : length;
+    }
+
+    static long utf8Length(CharSequence s) {
+        long length = 0;
+        int n = s.length();
+        for (int i = 0; i < n; ++i) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (!Character.isSurrogate(c)) {
+                length += 3;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                ++i;
+            } else {
+                // 不正なサロゲートは '?'。
+                length += 1;
+            }
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * GaijiTable.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+
+class GaijiTable {
+
+    // ユーザー外字領域 (95区〜114区)。
+    static final int MIN_KU = 95;
+    static final int MAX_KU = 114;
+    static final int CELLS = (MAX_KU - MIN_KU + 1) * 94;
+
+    // 私用領域。
+    static final int MIN_PUA = 0xE000;
+    static final int MAX_PUA = 0xF8FF;
+
+    // 1文字あたりの最大長 (UTF-16)。
+    static final int MAX_CHARS = 4;
+
+    // 外字なし。
+    static final char NONE = '\u0000';
+
+    // 区点 → decodeChars の範囲 (decodeIndex[i] 〜 decodeIndex[i + 1])。
+    final int[] decodeIndex;
+    final char[] decodeChars;
+
+    // 私用領域 → Windows-31J
+    final char[] encodePua;
+
+    // 異体字シーケンス (基底文字 << 32 | 異体字セレクタ) の昇順 → Windows-31J
+    final long[] sequences;
+    final char[] sequenceCodes;
+
+    // 私用領域以外の1文字の外字を含むブロック (コードポイント >> 8)。
+    final boolean[] singleBlocks;
+
+    final int size;
+
+    GaijiTable(Map<Integer, String> mappings) {
+        String[] cells = new String[CELLS];
+        for (Map.Entry<Integer, String> e : mappings.entrySet()) {
+            int sjis = e.getKey();
+            String s = e.getValue();
+            int cell = cell(sjis);
+            if (cell < 0) {
+                throw new IllegalArgumentException("sjis: " + Integer.toHexString(sjis));
+            }
+            if (s.isEmpty() || MAX_CHARS < s.length()) {
+                throw new IllegalArgumentException("s: " + s);
+            }
+            cells[cell] = s;
+        }
+
+        this.decodeIndex = new int[CELLS + 1];
+        StringBuilder sb = new StringBuilder();
+        this.encodePua = new char[MAX_PUA - MIN_PUA + 1];
+        this.singleBlocks = new boolean[(Character.MAX_CODE_POINT + 1) >> 8];
+        TreeMap<Long, Character> sequenceMap = new TreeMap<>();
+        int size = 0;
+        for (int cell = 0; cell < CELLS; ++cell) {
+            decodeIndex[cell] = sb.length();
+            String s = cells[cell];
+            if (s == null) {
+                continue;
+            }
+            sb.append(s);
+            ++size;
+
+            char code = (char) cellToSjis(cell);
+            int cp = s.codePointAt(0);
+            int n = Character.charCount(cp);
+            if (n == s.length()) {
+                if (MIN_PUA <= cp && cp <= MAX_PUA) {
+                    encodePua[cp - MIN_PUA] = code;
+                } else {
+                    singleBlocks[cp >> 8] = true;
+                    sequenceMap.put(sequenceKey(cp, 0), code);
+                }
+            } else {
+                int vs = s.codePointAt(n);
+                if (!isVariationSelector(vs) || n + Character.charCount(vs) != s.length()) {
+                    throw new IllegalArgumentException("s: " + toHexString(s));
+                }
+                sequenceMap.put(sequenceKey(cp, vs), code);
+            }
+        }
+        decodeIndex[CELLS] = sb.length();
+        this.decodeChars = sb.toString().toCharArray();
+
+        this.sequences = new long[sequenceMap.size()];
+        this.sequenceCodes = new char[sequenceMap.size()];
+        int i = 0;
+        for (Map.Entry<Long, Character> e : sequenceMap.entrySet()) {
+            sequences[i] = e.getKey();
+            sequenceCodes[i] = e.getValue();
+            ++i;
+        }
+        this.size = size;
+    }
+
+    static GaijiTable load(Path path) throws IOException {
+        Pattern p = Pattern.compile(" *([0-9A-Fa-f]{4}) +U\\+(\\S+)(?: +U\\+(\\S+))?.*");
+        Map<Integer, String> mappings = new LinkedHashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(path, UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Matcher m = p.matcher(line);
+                if (m.matches()) {
+                    String s = cpToString(m.group(2));
+                    if (m.group(3) != null) {
+                        s += cpToString(m.group(3));
+                    }
+                    mappings.put(Integer.parseInt(m.group(1), 16), s);
+                }
+            }
+        }
+        return new GaijiTable(mappings);
+    }
+
+    public static void main(String[] args) throws IOException {
+        GaijiTable table = load(Paths.get(args.length == 0 ? "gaiji.txt" : args[0]));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        out.println("#");
+        out.println("# ユーザー外字");
+        out.println("#");
+        out.println();
+        out.println("W31J  区-点 UTF-16");
+        out.println("---- ------ ----------------");
+        for (int cell = 0; cell < CELLS; ++cell) {
+            int start = table.decodeIndex[cell];
+            int end = table.decodeIndex[cell + 1];
+            if (start == end) {
+                continue;
+            }
+            String s = new String(table.decodeChars, start, end - start);
+            out.printf("%04X %3d-%02d %-16s [%s]%n", cellToSjis(cell),
+                    MIN_KU + cell / 94, cell % 94 + 1, toHexString(s), s);
+        }
+    }
+
+    static int cell(int sjis) {
+        int c1 = sjis >> 8;
+        int c2 = sjis & 0xFF;
+        if (c1 < 0xF0 || 0xF9 < c1 || c2 < 0x40 || c2 == 0x7F || 0xFC < c2) {
+            return -1;
+        }
+        int k = (c1 - 0xF0) * 2 + (c2 < 0x9F ? 0 : 1);
+        int t = c2 - (c2 < 0x80 ? 0x3F : (c2 < 0x9F ? 0x40 : 0x9E));
+        return k * 94 + t - 1;
+    }
+
+    static int cellToSjis(int cell) {
+        int k = cell / 94;
+        int t = cell % 94 + 1;
+        int c1 = 0xF0 + k / 2;
+        int c2 = t + (k % 2 == 0 ? (t <= 63 ? 0x3F : 0x40) : 0x9E);
+        return c1 << 8 | c2;
+    }
+
+    static String cpToString(String cp) {
+        return new StringBuilder().appendCodePoint(Integer.parseInt(cp, 16)).toString();
+    }
+
+    static String toHexString(String s) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            sb.append(String.format("%04X", (int) c));
+        }
+        return sb.toString();
+    }
+
+    static long sequenceKey(int cp, int vs) {
+        return (long) cp << 32 | vs;
+    }
+
+    static boolean isVariationSelector(int cp) {
+        return (0xFE00 <= cp && cp <= 0xFE0F) || (0xE0100 <= cp && cp <= 0xE01EF);
+    }
+
+    // 異体字セレクタの先頭 (U+FE00〜U+FE0F、U+E0100〜U+E01EF の上位サロゲート)。
+    static boolean isSelectorStart(char c) {
+        return ('\uFE00' <= c && c <= '\uFE0F') || c == '\uDB40';
+    }
+
+    // ユーザー外字をデコードし、書き込んだ文字数を返す (外字なしは 0)。
+    int decode(int sjis, char[] dst, int dpos) {
+        int cell = cell(sjis);
+        if (cell < 0) {
+            return 0;
+        }
+        int start = decodeIndex[cell];
+        int n = decodeIndex[cell + 1] - start;
+        if (n > 0) {
+            System.arraycopy(decodeChars, start, dst, dpos, n);
+        }
+        return n;
+    }
+
+    // src[i] から始まる外字をエンコードし、(消費した文字数 << 16 | Windows-31J) を返す (外字なしは -1)。
+    int encode(char[] src, int i, int end) {
+        char c = src[i];
+        if (sequences.length > 0) {
+            int next = Character.isHighSurrogate(c) ? i + 2 : i + 1;
+            if (next < end && isSelectorStart(src[next])) {
+                int code = encodeSequence(src, i, end);
+                if (code >= 0) {
+                    return code;
+                }
+            }
+        }
+        int pua = c - MIN_PUA;
+        if (0 <= pua && pua < encodePua.length) {
+            char code = encodePua[pua];
+            return (code == NONE) ? -1 : (1 << 16 | code);
+        }
+        int cp = Character.isHighSurrogate(c) ? Character.codePointAt(src, i, end) : c;
+        if (singleBlocks[cp >> 8]) {
+            int index = Arrays.binarySearch(sequences, sequenceKey(cp, 0));
+            if (index >= 0) {
+                return Character.charCount(cp) << 16 | sequenceCodes[index];
+            }
+        }
+        return -1;
+    }
+
+    int encodeSequence(char[] src, int i, int end) {
+        int cp = Character.codePointAt(src, i, end);
+        int n = Character.charCount(cp);
+        int vs = Character.codePointAt(src, i + n, end);
+        int index = Arrays.binarySearch(sequences, sequenceKey(cp, vs));
+        if (index >= 0) {
+            return (n + Character.charCount(vs)) << 16 | sequenceCodes[index];
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * IvsTable.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+
+// 漢字の異体字シーケンス (IVS、基底文字 + U+E0100〜U+E01EF) の置き換え。
+// 従来の文字コードにエンコードする前に、表にあるシーケンスは置き換え先の文字に、
+// 表にないシーケンスは異体字セレクタを除いて基底文字にする。
+class IvsTable {
+
+    // 異体字セレクタ (追加面)。
+    static final int MIN_SELECTOR = 0xE0100;
+    static final int MAX_SELECTOR = 0xE01EF;
+    // 異体字セレクタの上位サロゲート (すべて共通) と下位サロゲートの範囲。
+    static final char SELECTOR_HIGH = '\uDB40';
+    static final char MIN_SELECTOR_LOW = '\uDD00';
+    static final char MAX_SELECTOR_LOW = '\uDDEF';
+
+    // 表なし (異体字セレクタを除くだけ)。
+    static final IvsTable STRIP = new IvsTable(Collections.emptyMap(), Collections.emptyMap());
+
+    // シーケンス → 置き換え先のコードポイント。
+    final Map<Integer, Integer> replacements;
+    // シーケンス → JIS X 0213 の面区点 (Charsets.menKuten)。
+    final Map<Integer, Integer> menKutens;
+
+    // シーケンス (基底文字 << 8 | 異体字セレクタの番号) の昇順と置き換え先。
+    final int[] sequences;
+    final int[] sequenceReplacements;
+
+    // replacements と menKutens に同じシーケンスがあれば replacements を使う。
+    IvsTable(Map<Integer, Integer> replacements, Map<Integer, Integer> menKutens) {
+        this.replacements = replacements;
+        this.menKutens = menKutens;
+
+        TreeMap<Integer, Integer> sequenceMap = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> e : menKutens.entrySet()) {
+            sequenceMap.put(e.getKey(), menKutenToCodePoint(e.getValue()));
+        }
+        for (Map.Entry<Integer, Integer> e : replacements.entrySet()) {
+            int cp = e.getValue();
+            if (cp < 0 || Character.MAX_CODE_POINT < cp || Character.isSurrogate((char) cp)
+                    || isSelectorCodePoint(cp)) {
+                throw new IllegalArgumentException("replacement: " + toString(e.getKey(), cp));
+            }
+            sequenceMap.put(e.getKey(), cp);
+        }
+        this.sequences = new int[sequenceMap.size()];
+        this.sequenceReplacements = new int[sequenceMap.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> e : sequenceMap.entrySet()) {
+            sequences[i] = e.getKey();
+            sequenceReplacements[i] = e.getValue();
+            ++i;
+        }
+    }
+
+    // 面区点の文字 (Shift_JIS-2004 でデコードした1文字)。
+    static int menKutenToCodePoint(int menKuten) {
+        int cp = JisX0213Codec.DECODE_TABLE[Charsets.menKutenToSjis(menKuten)];
+        if (cp == JisX0213Codec.UNDEFINED || (cp & JisX0213Codec.SEQUENCE) != 0) {
+            throw new IllegalArgumentException("menKuten: " + menKuten);
+        }
+        return cp;
+    }
+
+    static int sequenceKey(int cp, int vs) {
+        if (cp < 0 || Character.MAX_CODE_POINT < cp || !isSelectorCodePoint(vs)) {
+            throw new IllegalArgumentException(String.format("sequence: U+%04X U+%04X", cp, vs));
+        }
+        return cp << 8 | (vs - MIN_SELECTOR);
+    }
+
+    static boolean isSelectorCodePoint(int cp) {
+        return MIN_SELECTOR <= cp && cp <= MAX_SELECTOR;
+    }
+
+    static boolean isSelectorLow(char c) {
+        return MIN_SELECTOR_LOW <= c && c <= MAX_SELECTOR_LOW;
+    }
+
+    static String toString(int key, int cp) {
+        return String.format("U+%04X U+%04X U+%04X", key >>> 8, MIN_SELECTOR + (key & 0xFF), cp);
+    }
+
+    // "U+8FBB U+E0100 1-36-52" は面区点の文字、"U+845B U+E0101 U+845B" はコードポイントに置き換える。
+    static IvsTable parse(List<String> lines) {
+        Pattern p = Pattern.compile(
+                " *U\\+([0-9A-Fa-f]+) +U\\+([0-9A-Fa-f]+) +(?:([12])-(\\d+)-(\\d+)|U\\+([0-9A-Fa-f]+)) *(?:#.*)?");
+        Map<Integer, Integer> replacements = new LinkedHashMap<>();
+        Map<Integer, Integer> menKutens = new LinkedHashMap<>();
+        for (String line : lines) {
+            Matcher m = p.matcher(line);
+            if (m.matches()) {
+                int key = sequenceKey(Integer.parseInt(m.group(1), 16), Integer.parseInt(m.group(2), 16));
+                if (m.group(6) != null) {
+                    replacements.put(key, Integer.parseInt(m.group(6), 16));
+                } else {
+                    menKutens.put(key, Charsets.menKuten(Integer.parseInt(m.group(3)),
+                            Integer.parseInt(m.group(4)), Integer.parseInt(m.group(5))));
+                }
+            } else if (!line.isBlank() && !line.trim().startsWith("#")) {
+                throw new IllegalArgumentException("line: " + line);
+            }
+        }
+        return new IvsTable(replacements, menKutens);
+    }
+
+    static IvsTable load(Path path) throws IOException {
+        return parse(Files.readAllLines(path, UTF_8));
+    }
+
+    // 基底文字 cp と異体字セレクタ vs の置き換え先 (表にないシーケンスは cp)。
+    int replacement(int cp, int vs) {
+        int index = Arrays.binarySearch(sequences, sequenceKey(cp, vs));
+        return (index >= 0) ? sequenceReplacements[index] : cp;
+    }
+
+    // 基底文字 cp と異体字セレクタ vs の面区点 (表にない場合は 0)。
+    int menKuten(int cp, int vs) {
+        Integer menKuten = menKutens.get(sequenceKey(cp, vs));
+        return (menKuten == null) ? 0 : menKuten;
+    }
+
+    // 異体字セレクタを含まない文字列はそのまま返す。
+    String map(String s) {
+        // Latin-1 の文字列は比べずに -1 になる。
+        if (s.indexOf(SELECTOR_HIGH) < 0) {
+            return s;
+        }
+        char[] chars = s.toCharArray();
+        return new String(chars, 0, map(chars, 0, chars.length, chars, 0));
+    }
+
+    // src を置き換え、dst の終了位置を返す (dst は src と同じ配列でもよい)。
+    // 置き換えても長さは増えない。
+    int map(char[] src, int off, int len, char[] dst, int dpos) {
+        return (int) map(src, off, len, dst, dpos, true);
+    }
+
+    // 続きがある場合 (endOfInput が false) は、次の異体字セレクタと合わせる末尾の文字を残す。
+    // src の終了位置 << 32 | dst の終了位置 を返す。
+    long map(char[] src, int off, int len, char[] dst, int dpos, boolean endOfInput) {
+        int end = off + len;
+        if (!endOfInput && off < end) {
+            if (Character.isHighSurrogate(src[end - 1])) {
+                --end;
+            }
+            if (sequences.length > 0 && off < end) {
+                // 表がある場合は基底文字も残す。
+                int n = (end - off >= 2 && Character.isSurrogatePair(src[end - 2], src[end - 1])) ? 2 : 1;
+                if (n == 1 || src[end - 2] != SELECTOR_HIGH || !isSelectorLow(src[end - 1])) {
+                    end -= n;
+                }
+            }
+        }
+        int i = off;
+        // 異体字セレクタのない範囲はまとめて複写する。
+        while (i < end && src[i] != SELECTOR_HIGH) {
+            ++i;
+        }
+        if (src != dst || off != dpos) {
+            System.arraycopy(src, off, dst, dpos, i - off);
+        }
+        dpos += i - off;
+        // 直前の基底文字 (なしは -1) と dst での開始位置。
+        int base = -1;
+        int baseStart = dpos;
+        if (i > off) {
+            base = Character.codePointBefore(src, i, off);
+            baseStart = dpos - Character.charCount(base);
+        }
+        while (i < end) {
+            char c = src[i];
+            if (c == SELECTOR_HIGH && i + 1 < end && isSelectorLow(src[i + 1])) {
+                if (base >= 0) {
+                    int cp = replacement(base, Character.toCodePoint(c, src[i + 1]));
+                    if (cp != base) {
+                        dpos = baseStart + Character.toChars(cp, dst, baseStart);
+                    }
+                }
+                // 続く異体字セレクタは除くだけ。
+                base = -1;
+                i += 2;
+                continue;
+            }
+            baseStart = dpos;
+            if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(src[i + 1])) {
+                base = Character.toCodePoint(c, src[i + 1]);
+                dst[dpos++] = c;
+                dst[dpos++] = src[i + 1];
+                i += 2;
+            } else {
+                base = Character.isSurrogate(c) ? -1 : c;
+                dst[dpos++] = c;
+                ++i;
+            }
+        }
+        return (long) i << 32 | dpos;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String table = "ivs.txt";
+        String mode = "list";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("-table".equals(args[i])) {
+                table = args[i + 1];
+            } else if ("-mode".equals(args[i])) {
+                mode = args[i + 1];
+            } else {
+                throw new IllegalArgumentException("option: " + args[i]);
+            }
+        }
+
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false, "UTF-8");
+        if ("list".equals(mode)) {
+            IvsTable ivs = load(Paths.get(table));
+            out.println("#");
+            out.println("# 異体字シーケンス");
+            out.println("#");
+            out.println();
+            out.println("基底   セレクタ 置き換え 面区点");
+            out.println("------ ------- ------- ---------");
+            for (int i = 0; i < ivs.sequences.length; ++i) {
+                int key = ivs.sequences[i];
+                int cp = key >>> 8;
+                int vs = MIN_SELECTOR + (key & 0xFF);
+                int menKuten = ivs.menKuten(cp, vs);
+                out.printf("U+%04X U+%04X U+%04X %s [%s]%n", cp, vs, ivs.sequenceReplacements[i],
+                        (menKuten == 0) ? "-" : String.format("%d-%02d-%02d",
+                                menKuten / 10000, menKuten / 100 % 100, menKuten % 100),
+                        new StringBuilder().appendCodePoint(cp).appendCodePoint(vs));
+            }
+        } else {
+            // 標準入力の行を置き換える (strip は異体字セレクタを除くだけ)。
+            IvsTable ivs;
+            if ("strip".equals(mode)) {
+                ivs = STRIP;
+            } else if ("map".equals(mode)) {
+                ivs = load(Paths.get(table));
+            } else {
+                throw new IllegalArgumentException("mode: " + mode);
+            }
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.println(ivs.map(line));
+            }
+        }
+        out.flush();
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * JisCollator.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.util.*;
+
+class JisCollator {
+
+    // 並び順。
+    // Windows-31J のバイト順。
+    static final int SJIS = 0;
+    // Windows-31J の区点順 (1〜120区)。
+    static final int JIS = 1;
+    // Shift_JIS-2004 の面区点順。
+    static final int JIS_X0213 = 2;
+
+    // 変換できない文字の扱い。
+    // 無視する。
+    static final int IGNORE = 0;
+    // すべての文字の後 (UTF-16 の順)。
+    static final int LAST = 1;
+    // '?' に置き換える (エンコードと同じ)。
+    static final int REPLACE = 2;
+
+    // 変換できない文字の重み。
+    static final char UNMAPPED = '\uFFFF';
+    // 2バイト文字の重みの開始 (区点順)。
+    static final int DOUBLE_BYTE = 0x100;
+
+    final int order;
+    final int fallback;
+
+    // UTF-16 → 重み (16ビット、ビッグエンディアンで比較)。
+    final char[] weights = new char[0x10000];
+
+    JisCollator() {
+        this(SJIS, LAST);
+    }
+
+    JisCollator(int order, int fallback) {
+        if (order < SJIS || JIS_X0213 < order) {
+            throw new IllegalArgumentException("order: " + order);
+        }
+        if (fallback < IGNORE || REPLACE < fallback) {
+            throw new IllegalArgumentException("fallback: " + fallback);
+        }
+        this.order = order;
+        this.fallback = fallback;
+        CodeTrie trie = (order == JIS_X0213) ? JisX0213Codec.ENCODE_TRIE : Windows31jCodec.ENCODE_TRIE;
+        for (int c = 0x0000; c <= 0xFFFF; ++c) {
+            int code = trie.get(c);
+            weights[c] = (code == Windows31jCodec.UNMAPPABLE) ? UNMAPPED : weight(code);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String option = (args.length == 0) ? "-sjis" : args[0];
+        int order = "-jis".equals(option) ? JIS : ("-x0213".equals(option) ? JIS_X0213 : SJIS);
+        JisCollator collator = new JisCollator(order, LAST);
+
+        List<String> lines = new ArrayList<>();
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            lines.add(line);
+        }
+        Keys keys = collator.keys(lines);
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        for (int i : keys.sortedIndexes()) {
+            out.println(lines.get(i));
+        }
+    }
+
+    // 符号 → 重み。
+    char weight(int code) {
+        if (order == SJIS) {
+            // 1バイト文字は XX00 (バイト列の比較と同じ順になる)。
+            return (char) ((code < 0x100) ? code << 8 : code);
+        }
+        if (code < 0x100) {
+            return (char) code;
+        }
+        // 配列を作らずに区点を求める。
+        int m;
+        int k;
+        int t;
+        if (order == JIS) {
+            // 95〜120区も1面の続きとする。
+            int c1 = code >> 8;
+            int c2 = code & 0xFF;
+            m = 1;
+            k = (c1 - (c1 < 0xE0 ? 0x80 : 0xC0)) * 2 - (c2 < 0x9F ? 1 : 0);
+            t = c2 - (c2 < 0x80 ? 0x3F : (c2 < 0x9F ? 0x40 : 0x9E));
+        } else {
+            int menKuten = Charsets.sjis2004ToKuten(code);
+            m = menKuten / 10000;
+            k = menKuten / 100 % 100;
+            t = menKuten % 100;
+        }
+        return (char) (DOUBLE_BYTE + ((m - 1) * 94 + (k - 1)) * 94 + (t - 1));
+    }
+
+    // 照合キーの最大長。
+    int maxKeyLength(int len) {
+        return (fallback == LAST) ? len * 4 : len * 2;
+    }
+
+    // src の照合キーを dst に書き込み、dst の終了位置を返す。
+    int key(char[] src, int off, int len, byte[] dst, int dpos) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            char c = src[i];
+            if (order == JIS_X0213 && JisX0213Codec.isStarter(c)) {
+                // 結合文字列 (最長一致)。
+                int matched = JisX0213Codec.SEQUENCES.match(src, i, end);
+                if (matched >= 0) {
+                    dpos = put(dst, dpos, weight(matched & 0xFFFF));
+                    i += matched >>> 16;
+                    continue;
+                }
+            }
+            ++i;
+            char w = weights[c];
+            if (w != UNMAPPED) {
+                dpos = put(dst, dpos, w);
+                continue;
+            }
+            boolean pair = Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(src[i]);
+            if (pair && order == JIS_X0213) {
+                int code = JisX0213Codec.ENCODE_TRIE.get(Character.toCodePoint(c, src[i]));
+                if (code != JisX0213Codec.UNMAPPABLE) {
+                    dpos = put(dst, dpos, weight(code));
+                    ++i;
+                    continue;
+                }
+            }
+            if (fallback == LAST) {
+                dpos = put(dst, dpos, UNMAPPED);
+                dpos = put(dst, dpos, c);
+            } else if (fallback == REPLACE) {
+                // サロゲートペアは1文字として置き換える。
+                if (pair) {
+                    ++i;
+                }
+                dpos = put(dst, dpos, weights['?']);
+            }
+        }
+        return dpos;
+    }
+
+    static int put(byte[] dst, int dpos, int w) {
+        dst[dpos++] = (byte) (w >> 8);
+        dst[dpos++] = (byte) w;
+        return dpos;
+    }
+
+    byte[] key(String s) {
+        char[] chars = s.toCharArray();
+        byte[] bytes = new byte[maxKeyLength(chars.length)];
+        int n = key(chars, 0, chars.length, bytes, 0);
+        return Arrays.copyOf(bytes, n);
+    }
+
+    int compare(String s1, String s2) {
+        byte[] k1 = key(s1);
+        byte[] k2 = key(s2);
+        return compare(k1, 0, k1.length, k2, 0, k2.length);
+    }
+
+    // 照合キーを符号なしバイト列として比較する。
+    static int compare(byte[] b1, int off1, int len1, byte[] b2, int off2, int len2) {
+        int n = Math.min(len1, len2);
+        for (int i = 0; i < n; ++i) {
+            int d = (b1[off1 + i] & 0xFF) - (b2[off2 + i] & 0xFF);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return len1 - len2;
+    }
+
+    // 複数の文字列の照合キーを1つの配列にまとめて作る。
+    Keys keys(List<String> strings) {
+        Keys keys = new Keys(strings.size());
+        char[] chars = new char[64];
+        for (String s : strings) {
+            int len = s.length();
+            if (chars.length < len) {
+                chars = new char[Math.max(len, chars.length * 2)];
+            }
+            s.getChars(0, len, chars, 0);
+            keys.add(this, chars, 0, len);
+        }
+        return keys;
+    }
+
+    // 照合キーの一覧 (pool[offsets[i]] 〜 pool[offsets[i + 1] - 1])。
+    static class Keys {
+
+        byte[] pool;
+        int[] offsets;
+        int size;
+
+        Keys(int capacity) {
+            this.pool = new byte[Math.max(capacity, 1) * 16];
+            this.offsets = new int[capacity + 1];
+        }
+
+        void add(JisCollator collator, char[] src, int off, int len) {
+            int start = offsets[size];
+            int max = start + collator.maxKeyLength(len);
+            if (pool.length < max) {
+                pool = Arrays.copyOf(pool, Math.max(max, pool.length * 2));
+            }
+            if (offsets.length < size + 2) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[size + 1] = collator.key(src, off, len, pool, start);
+            ++size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int compare(int i, int j) {
+            return JisCollator.compare(pool, offsets[i], offsets[i + 1] - offsets[i],
+                    pool, offsets[j], offsets[j + 1] - offsets[j]);
+        }
+
+        // 照合キーの順に並べた添字 (安定ソート)。
+        int[] sortedIndexes() {
+            int[] indexes = new int[size];
+            for (int i = 0; i < size; ++i) {
+                indexes[i] = i;
+            }
+            sort(indexes, new int[size], 0, size);
+            return indexes;
+        }
+
+        void sort(int[] a, int[] work, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            sort(a, work, from, mid);
+            sort(a, work, mid, to);
+            if (compare(a[mid - 1], a[mid]) <= 0) {
+                return;
+            }
+            System.arraycopy(a, from, work, from, to - from);
+            int i = from;
+            int j = mid;
+            for (int k = from; k < to; ++k) {
+                if (j >= to || (i < mid && compare(work[i], work[j]) <= 0)) {
+                    a[k] = work[i++];
+                } else {
+                    a[k] = work[j++];
+                }
+            }
+        }
+
+    }
+
+}
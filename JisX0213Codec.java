@@ -0,0 +1,347 @@
+/*
+ * JisX0213Codec.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+class JisX0213Codec {
+
+    static final Charset SHIFT_JIS_2004 = Charset.forName("x-SJIS_0213");
+
+    // デコードできない文字。
+    static final char UNDEFINED = '\uFFFD';
+    // エンコードできない文字。
+    static final char UNMAPPABLE = '\uFFFF';
+    // エンコードできない文字の代替。
+    static final byte REPLACEMENT = 0x3F;
+
+    // 結合文字列を表すデコード値。
+    static final int SEQUENCE = 0x1000000;
+
+    // Shift_JIS-2004 → コードポイント (結合文字列は SEQUENCE | 番号)。
+    static final int[] DECODE_TABLE = new int[0x10000];
+    // 結合文字列 (UTF-16)。
+    static final String[] DECODE_SEQUENCES;
+
+    // コードポイント → Shift_JIS-2004
+    static final CodeTrie ENCODE_TRIE;
+
+    // 結合文字列の先頭になる文字 (基本多言語面のビット集合)。
+    static final long[] STARTERS = new long[0x10000 / 64];
+    // 結合文字列 → Shift_JIS-2004
+    static final SequenceTrie SEQUENCES;
+
+    static {
+        Arrays.fill(DECODE_TABLE, UNDEFINED);
+
+        CharsetDecoder decoder = SHIFT_JIS_2004.newDecoder();
+        CharsetEncoder encoder = SHIFT_JIS_2004.newEncoder();
+        ByteBuffer in = ByteBuffer.allocate(2);
+        CharBuffer out = CharBuffer.allocate(4);
+        List<String> sequences = new ArrayList<>();
+        Map<String, Integer> sequenceCodes = new LinkedHashMap<>();
+        CodeTrie.Builder trie = new CodeTrie.Builder(UNMAPPABLE);
+        for (int c1 = 0x00; c1 <= 0xFF; ++c1) {
+            if (isLead(c1)) {
+                for (int c2 = 0x40; c2 <= 0xFC; ++c2) {
+                    String s = decode(decoder, in.clear().put((byte) c1).put((byte) c2), out);
+                    if (s == null) {
+                        continue;
+                    }
+                    int word = c1 << 8 | c2;
+                    int cp = s.codePointAt(0);
+                    if (Character.charCount(cp) == s.length()) {
+                        DECODE_TABLE[word] = cp;
+                        if (Character.isSupplementaryCodePoint(cp) && trie.get(cp) == UNMAPPABLE) {
+                            trie.set(cp, encode(encoder, s, word));
+                        }
+                    } else {
+                        DECODE_TABLE[word] = SEQUENCE | sequences.size();
+                        sequences.add(s);
+                        sequenceCodes.put(s, encode(encoder, s, word));
+                    }
+                }
+            } else {
+                String s = decode(decoder, in.clear().put((byte) c1), out);
+                if (s != null && s.length() == 1) {
+                    DECODE_TABLE[c1] = s.charAt(0);
+                }
+            }
+        }
+        DECODE_SEQUENCES = sequences.toArray(new String[0]);
+
+        CharBuffer cin = CharBuffer.allocate(1);
+        ByteBuffer bout = ByteBuffer.allocate(4);
+        for (int c = 0x0000; c <= 0xFFFF; ++c) {
+            if (Character.isSurrogate((char) c)) {
+                continue;
+            }
+            cin.clear().put((char) c).flip();
+            bout.clear();
+            encoder.reset();
+            if (encoder.encode(cin, bout, true).isUnderflow()
+                    && encoder.flush(bout).isUnderflow()) {
+                bout.flip();
+                trie.set(c, (bout.remaining() == 1)
+                        ? (bout.get(0) & 0xFF)
+                        : ((bout.get(0) & 0xFF) << 8 | (bout.get(1) & 0xFF)));
+            }
+        }
+        ENCODE_TRIE = trie.build();
+
+        SEQUENCES = new SequenceTrie(sequenceCodes);
+        for (String s : sequenceCodes.keySet()) {
+            char c = s.charAt(0);
+            STARTERS[c >> 6] |= 1L << c;
+        }
+    }
+
+    static String decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out) {
+        in.flip();
+        out.clear();
+        decoder.reset();
+        if (!decoder.decode(in, out, true).isUnderflow() || !decoder.flush(out).isUnderflow()) {
+            return null;
+        }
+        out.flip();
+        return out.toString();
+    }
+
+    // JDK のエンコーダーと同じ符号を選ぶ (複数の符号に対応する文字)。
+    static int encode(CharsetEncoder encoder, String s, int word) {
+        try {
+            encoder.reset();
+            ByteBuffer bb = encoder.encode(CharBuffer.wrap(s));
+            if (bb.remaining() == 2) {
+                return (bb.get(0) & 0xFF) << 8 | (bb.get(1) & 0xFF);
+            }
+        } catch (CharacterCodingException e) {
+            // 変換元の符号を使う。
+        }
+        return word;
+    }
+
+    static boolean isLead(int c1) {
+        return (0x81 <= c1 && c1 <= 0x9F) || (0xE0 <= c1 && c1 <= 0xFC);
+    }
+
+    static boolean isStarter(char c) {
+        return (STARTERS[c >> 6] & (1L << c)) != 0;
+    }
+
+    // デコード結果の最大長。
+    int maxDecodedLength(int len) {
+        return len * 2;
+    }
+
+    // エンコード結果の最大長。
+    int maxEncodedLength(int len) {
+        return len * 2;
+    }
+
+    // src をデコードし、dst の終了位置を返す。
+    int decode(byte[] src, int off, int len, char[] dst, int dpos) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            int c1 = src[i++] & 0xFF;
+            int v = DECODE_TABLE[c1];
+            if (v != UNDEFINED) {
+                dst[dpos++] = (char) v;
+                if (ByteRuns.isSjisSingleByte(c1)) {
+                    // 続く1バイト文字はまとめて変換する。
+                    int run = ByteRuns.sjisSingleByteEnd(src, i, end);
+                    while (i < run) {
+                        dst[dpos++] = (char) DECODE_TABLE[src[i++] & 0xFF];
+                    }
+                }
+                continue;
+            }
+            if (i == end) {
+                dst[dpos++] = UNDEFINED;
+                break;
+            }
+            int c2 = src[i] & 0xFF;
+            v = DECODE_TABLE[c1 << 8 | c2];
+            if (v < 0x10000) {
+                dst[dpos++] = (char) v;
+                if (v == UNDEFINED && DECODE_TABLE[c2] != UNDEFINED) {
+                    // 2バイト目は次の文字として扱う (JDK と同じ)。
+                    continue;
+                }
+            } else if (v < SEQUENCE) {
+                dst[dpos++] = Character.highSurrogate(v);
+                dst[dpos++] = Character.lowSurrogate(v);
+            } else {
+                String s = DECODE_SEQUENCES[v & 0xFFFF];
+                s.getChars(0, s.length(), dst, dpos);
+                dpos += s.length();
+            }
+            ++i;
+        }
+        return dpos;
+    }
+
+    // src をエンコードし、dst の終了位置を返す。
+    int encode(char[] src, int off, int len, byte[] dst, int dpos) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            char c = src[i];
+            int code = ENCODE_TRIE.get(c);
+            if (isStarter(c)) {
+                // 結合文字列 (最長一致)。
+                int matched = SEQUENCES.match(src, i, end);
+                if (matched >= 0) {
+                    dst[dpos++] = (byte) (matched >> 8);
+                    dst[dpos++] = (byte) matched;
+                    i += matched >>> 16;
+                    continue;
+                }
+            }
+            ++i;
+            if (code == UNMAPPABLE) {
+                code = REPLACEMENT;
+                if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(src[i])) {
+                    int supplementary = ENCODE_TRIE.get(Character.toCodePoint(c, src[i]));
+                    if (supplementary != UNMAPPABLE) {
+                        code = supplementary;
+                    }
+                    ++i;
+                }
+            }
+            if (code < 0x100) {
+                dst[dpos++] = (byte) code;
+            } else {
+                dst[dpos++] = (byte) (code >> 8);
+                dst[dpos++] = (byte) code;
+            }
+        }
+        return dpos;
+    }
+
+    String decode(byte[] bytes) {
+        char[] chars = new char[maxDecodedLength(bytes.length)];
+        int n = decode(bytes, 0, bytes.length, chars, 0);
+        return new String(chars, 0, n);
+    }
+
+    byte[] encode(String s) {
+        char[] chars = s.toCharArray();
+        byte[] bytes = new byte[maxEncodedLength(chars.length)];
+        int n = encode(chars, 0, chars.length, bytes, 0);
+        return Arrays.copyOf(bytes, n);
+    }
+
+    // 複数の文字からなる文字列の最長一致用トライ。
+    static class SequenceTrie {
+
+        // ノード i の子は childCps[childStart[i]] 〜 childCps[childStart[i + 1] - 1] (昇順)。
+        final int[] childStart;
+        final char[] childChars;
+        final int[] childNodes;
+        // ノード i で終わる文字列の符号 (なしは -1)。
+        final int[] codes;
+
+        SequenceTrie(Map<String, Integer> sequences) {
+            // 構築用の木。
+            List<TreeMap<Character, Integer>> children = new ArrayList<>();
+            List<Integer> codes = new ArrayList<>();
+            children.add(new TreeMap<>());
+            codes.add(-1);
+            for (Map.Entry<String, Integer> e : sequences.entrySet()) {
+                int node = 0;
+                for (char c : e.getKey().toCharArray()) {
+                    Integer next = children.get(node).get(c);
+                    if (next == null) {
+                        next = children.size();
+                        children.get(node).put(c, next);
+                        children.add(new TreeMap<>());
+                        codes.add(-1);
+                    }
+                    node = next;
+                }
+                codes.set(node, e.getValue());
+            }
+
+            int n = children.size();
+            this.childStart = new int[n + 1];
+            int total = 0;
+            for (int i = 0; i < n; ++i) {
+                childStart[i] = total;
+                total += children.get(i).size();
+            }
+            childStart[n] = total;
+            this.childChars = new char[total];
+            this.childNodes = new int[total];
+            this.codes = new int[n];
+            for (int i = 0; i < n; ++i) {
+                int j = childStart[i];
+                for (Map.Entry<Character, Integer> e : children.get(i).entrySet()) {
+                    childChars[j] = e.getKey();
+                    childNodes[j] = e.getValue();
+                    ++j;
+                }
+                this.codes[i] = codes.get(i);
+            }
+        }
+
+        int child(int node, char c) {
+            int lo = childStart[node];
+            int hi = childStart[node + 1] - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char x = childChars[mid];
+                if (x < c) {
+                    lo = mid + 1;
+                } else if (x > c) {
+                    hi = mid - 1;
+                } else {
+                    return childNodes[mid];
+                }
+            }
+            return -1;
+        }
+
+        // src[i] から始まる最長一致の (文字数 << 16 | 符号) を返す (一致なしは -1)。
+        int match(char[] src, int i, int end) {
+            int node = 0;
+            int matched = -1;
+            for (int j = i; j < end; ++j) {
+                node = child(node, src[j]);
+                if (node < 0) {
+                    break;
+                }
+                if (codes[node] >= 0) {
+                    matched = (j - i + 1) << 16 | codes[node];
+                }
+            }
+            return matched;
+        }
+
+        // CharSequence 版。
+        int match(CharSequence src, int i, int end) {
+            int node = 0;
+            int matched = -1;
+            for (int j = i; j < end; ++j) {
+                node = child(node, src.charAt(j));
+                if (node < 0) {
+                    break;
+                }
+                if (codes[node] >= 0) {
+                    matched = (j - i + 1) << 16 | codes[node];
+                }
+            }
+            return matched;
+        }
+
+        int size() {
+            return codes.length;
+        }
+
+    }
+
+}
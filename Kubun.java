@@ -0,0 +1,129 @@
+/*
+ * Kubun.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+class Kubun {
+
+    // 詳細区分の桁 (上位から)。
+    static final int UNICODE = 0;
+    static final int NORMALIZATION = 1;
+    static final int STANDARD = 2;
+    static final int LEVEL = 3;
+    static final int W31J = 4;
+    static final int KANJI = 5;
+    static final int FIELDS = 6;
+
+    static final String[] FIELD_NAMES = {
+        "Unicode", "正規化", "規格等", "水準", "Windows-31J", "法令等"
+    };
+
+    // 1桁 4ビット (16進数で表示すると文字列の区分と同じになる)。
+    static final int BITS = 4;
+    static final int DIGIT_MASK = 0xF;
+
+    // 未定義。
+    static final int UNDEFINED = of(9, 9, 9, 9, 9, 9);
+    // ユーザー外字。
+    static final int USER_DEFINED = of(8, 8, 8, 8, 8, 8);
+
+    static int of(int unicode, int normalization, int standard, int level, int w31j, int kanji) {
+        return unicode << 20 | normalization << 16 | standard << 12
+                | level << 8 | w31j << 4 | kanji;
+    }
+
+    static int shift(int field) {
+        return (FIELDS - 1 - field) * BITS;
+    }
+
+    static int mask(int field) {
+        return DIGIT_MASK << shift(field);
+    }
+
+    static int get(int kubun, int field) {
+        return kubun >>> shift(field) & DIGIT_MASK;
+    }
+
+    static int with(int kubun, int field, int value) {
+        return (kubun & ~mask(field)) | value << shift(field);
+    }
+
+    static int unicode(int kubun) {
+        return kubun >>> 20 & DIGIT_MASK;
+    }
+
+    static int normalization(int kubun) {
+        return kubun >>> 16 & DIGIT_MASK;
+    }
+
+    static int standard(int kubun) {
+        return kubun >>> 12 & DIGIT_MASK;
+    }
+
+    static int level(int kubun) {
+        return kubun >>> 8 & DIGIT_MASK;
+    }
+
+    static int w31j(int kubun) {
+        return kubun >>> 4 & DIGIT_MASK;
+    }
+
+    static int kanji(int kubun) {
+        return kubun & DIGIT_MASK;
+    }
+
+    static String toString(int kubun) {
+        return String.format("%06X", kubun);
+    }
+
+    static String toCsv(int kubun) {
+        StringBuilder sb = new StringBuilder();
+        for (int field = 0; field < FIELDS; ++field) {
+            if (field > 0) {
+                sb.append(',');
+            }
+            sb.append(get(kubun, field));
+        }
+        return sb.toString();
+    }
+
+    static int parse(String s) {
+        return Integer.parseInt(s, 16);
+    }
+
+    // 区分 (mask で絞り込んだ値) が value に一致する件数。
+    static int count(int[] kubuns, int mask, int value) {
+        int n = 0;
+        for (int kubun : kubuns) {
+            if ((kubun & mask) == value) {
+                ++n;
+            }
+        }
+        return n;
+    }
+
+    // 桁ごとの件数 (未定義を除く)。
+    static int[] histogram(int[] kubuns, int field) {
+        int[] counts = new int[10];
+        int shift = shift(field);
+        for (int kubun : kubuns) {
+            if (kubun != UNDEFINED) {
+                ++counts[kubun >>> shift & DIGIT_MASK];
+            }
+        }
+        return counts;
+    }
+
+    // 区分 (mask で絞り込んだ値) が value に一致する添字。
+    static int[] select(int[] kubuns, int mask, int value) {
+        int[] indexes = new int[count(kubuns, mask, value)];
+        int n = 0;
+        for (int i = 0; i < kubuns.length; ++i) {
+            if ((kubuns[i] & mask) == value) {
+                indexes[n++] = i;
+            }
+        }
+        return indexes;
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * MappedCharTable.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+// メモリーマップトファイル上の文字コード表 (複数のプロセスでページキャッシュを共有する)。
+class MappedCharTable {
+
+    // ファイルの形式。
+    static final int MAGIC = 0x43485442;
+    static final int VERSION = 1;
+
+    // ヘッダー (int の位置)。
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int SIZE_OFFSET = 8;
+    static final int POOL_LENGTH_OFFSET = 12;
+    static final int CODES_OFFSET = 16;
+    static final int STRINGS_OFFSET = 20;
+    static final int KINDS_OFFSET = 24;
+    static final int POOL_OFFSET = 28;
+    static final int HEADER_SIZE = 32;
+
+    final ByteBuffer buffer;
+    final int size;
+    final int poolLength;
+    final int codes;
+    final int strings;
+    final int kinds;
+    final int pool;
+
+    MappedCharTable(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE
+                || buffer.getInt(MAGIC_OFFSET) != MAGIC
+                || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("unknown format");
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(SIZE_OFFSET);
+        this.poolLength = buffer.getInt(POOL_LENGTH_OFFSET);
+        this.codes = buffer.getInt(CODES_OFFSET);
+        this.strings = buffer.getInt(STRINGS_OFFSET);
+        this.kinds = buffer.getInt(KINDS_OFFSET);
+        this.pool = buffer.getInt(POOL_OFFSET);
+        if (buffer.capacity() < pool + poolLength * 2L) {
+            throw new IOException("truncated");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 1 && "-write".equals(args[0])) {
+            write(CharTable.load(), Paths.get(args[1]));
+            return;
+        }
+        MappedCharTable table = open(Paths.get(args.length == 0 ? "chartable.bin" : args[0]));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        out.printf("行数:         %d%n", table.size);
+        out.printf("UTF-16:       %d%n", table.poolLength);
+        out.printf("ファイル:     %d バイト%n", table.buffer.capacity());
+        int n = 0;
+        for (int row = 0; row < table.size; ++row) {
+            if (table.code(CharTable.W31J, row) != CharTable.NONE
+                    && !CharTable.decodable(table.kind(row), CharTable.W31J)) {
+                ++n;
+            }
+        }
+        out.printf("W31J 片方向:  %d%n", n);
+    }
+
+    static MappedCharTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // マップはチャネルを閉じても有効。
+            return new MappedCharTable(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // 一時ファイルに書いてから置き換える (読み込み中のプロセスは古いファイルを使い続ける)。
+    static void write(CharTable table, Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length(table));
+                put(table, buffer);
+                buffer.force();
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // ファイルと同じ形式のバイト列。
+    static byte[] toByteArray(CharTable table) {
+        ByteBuffer buffer = ByteBuffer.allocate(length(table));
+        put(table, buffer);
+        return buffer.array();
+    }
+
+    static int length(CharTable table) {
+        return poolOffset(table.size()) + table.pool.length * 2;
+    }
+
+    static int stringsOffset(int size) {
+        return HEADER_SIZE + CharTable.CODE_COLUMNS * size * 4;
+    }
+
+    static int kindsOffset(int size) {
+        return align(stringsOffset(size) + CharTable.STRING_COLUMNS * size * 4, 8);
+    }
+
+    static int poolOffset(int size) {
+        return kindsOffset(size) + size * 8;
+    }
+
+    static void put(CharTable table, ByteBuffer buffer) {
+        int size = table.size();
+        int codes = HEADER_SIZE;
+        int strings = stringsOffset(size);
+        int kinds = kindsOffset(size);
+        int pool = poolOffset(size);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(SIZE_OFFSET, size);
+        buffer.putInt(POOL_LENGTH_OFFSET, table.pool.length);
+        buffer.putInt(CODES_OFFSET, codes);
+        buffer.putInt(STRINGS_OFFSET, strings);
+        buffer.putInt(KINDS_OFFSET, kinds);
+        buffer.putInt(POOL_OFFSET, pool);
+        for (int column = 0; column < CharTable.CODE_COLUMNS; ++column) {
+            buffer.position(codes + column * size * 4);
+            buffer.asIntBuffer().put(table.codes[column]);
+        }
+        for (int column = 0; column < CharTable.STRING_COLUMNS; ++column) {
+            buffer.position(strings + column * size * 4);
+            buffer.asIntBuffer().put(table.strings[column]);
+        }
+        buffer.position(kinds);
+        buffer.asLongBuffer().put(table.kinds);
+        buffer.position(pool);
+        buffer.asCharBuffer().put(table.pool);
+    }
+
+    // ヒープ上の CharTable にする。
+    CharTable toCharTable() {
+        ByteBuffer buffer = this.buffer.duplicate();
+        int[][] codes = new int[CharTable.CODE_COLUMNS][size];
+        for (int column = 0; column < CharTable.CODE_COLUMNS; ++column) {
+            buffer.position(this.codes + column * size * 4);
+            buffer.asIntBuffer().get(codes[column]);
+        }
+        int[][] strings = new int[CharTable.STRING_COLUMNS][size];
+        for (int column = 0; column < CharTable.STRING_COLUMNS; ++column) {
+            buffer.position(this.strings + column * size * 4);
+            buffer.asIntBuffer().get(strings[column]);
+        }
+        long[] kinds = new long[size];
+        buffer.position(this.kinds);
+        buffer.asLongBuffer().get(kinds);
+        char[] pool = new char[poolLength];
+        buffer.position(this.pool);
+        buffer.asCharBuffer().get(pool);
+        return new CharTable(size, codes, strings, kinds, pool);
+    }
+
+    static int align(int offset, int alignment) {
+        return (offset + alignment - 1) / alignment * alignment;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int code(int column, int row) {
+        return buffer.getInt(codes + (column * size + row) * 4);
+    }
+
+    long kind(int row) {
+        return buffer.getLong(kinds + row * 8);
+    }
+
+    int kubun(int row) {
+        return CharTable.kubun(kind(row));
+    }
+
+    int stringRef(int column, int row) {
+        return buffer.getInt(strings + (column * size + row) * 4);
+    }
+
+    int codePoint(int row) {
+        int start = pool + (stringRef(CharTable.VALUE, row) >>> 8) * 2;
+        char c = buffer.getChar(start);
+        if (Character.isHighSurrogate(c)) {
+            return Character.toCodePoint(c, buffer.getChar(start + 2));
+        }
+        return c;
+    }
+
+    // 文字列を dst に書き込み、書き込んだ文字数を返す。
+    int getChars(int column, int row, char[] dst, int dpos) {
+        int ref = stringRef(column, row);
+        if (ref == CharTable.ABSENT) {
+            return 0;
+        }
+        int start = pool + (ref >>> 8) * 2;
+        int len = ref & 0xFF;
+        for (int i = 0; i < len; ++i) {
+            dst[dpos + i] = buffer.getChar(start + i * 2);
+        }
+        return len;
+    }
+
+    String string(int column, int row) {
+        int ref = stringRef(column, row);
+        if (ref == CharTable.ABSENT) {
+            return null;
+        }
+        char[] chars = new char[ref & 0xFF];
+        getChars(column, row, chars, 0);
+        return new String(chars);
+    }
+
+}
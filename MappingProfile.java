@@ -0,0 +1,152 @@
+/*
+ * MappingProfile.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+
+// Windows-31J の変換の選択 (0x5C・0x7E、波ダッシュ、￢ 等)。
+// 読み込み時に Windows31jCodec のデコード表とエンコードのトライに組み込む。
+class MappingProfile {
+
+    // JDK の変換のまま。
+    static final MappingProfile JDK = new MappingProfile(Collections.emptyMap(), Collections.emptyMap());
+
+    // notes.md の変換表による訂正 (訂正前の文字もエンコードできる)。
+    static final MappingProfile CORRECTED = parse(Arrays.asList(
+        // 01-33 〜
+        "8160 U+301C",
+        // 01-34 ‖
+        "8161 U+2016",
+        // 01-61 −
+        "817C U+2212"
+    ));
+
+    // 符号 → デコードする文字 (その文字は符号にエンコードする)。
+    final Map<Integer, Integer> decodes;
+    // 文字 → エンコードする符号 (デコードは変えない)。
+    final Map<Integer, Integer> encodes;
+
+    // 組み込んだ表。
+    final char[] decodeTable;
+    final CodeTrie encodeTrie;
+
+    MappingProfile(Map<Integer, Integer> decodes, Map<Integer, Integer> encodes) {
+        this.decodes = decodes;
+        this.encodes = encodes;
+
+        decodeTable = decodes.isEmpty()
+                ? Windows31jCodec.DECODE_TABLE : Windows31jCodec.DECODE_TABLE.clone();
+        Map<Integer, Integer> codes = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> e : decodes.entrySet()) {
+            int code = e.getKey();
+            int cp = e.getValue();
+            checkCode(code);
+            if (cp > Character.MAX_VALUE || Character.isSurrogate((char) cp)
+                    || cp == Windows31jCodec.UNDEFINED || cp == Windows31jCodec.UNMAPPABLE) {
+                throw new IllegalArgumentException("decode: " + toString(code, cp));
+            }
+            decodeTable[code] = (char) cp;
+            codes.put(cp, code);
+        }
+        for (Map.Entry<Integer, Integer> e : encodes.entrySet()) {
+            int cp = e.getKey();
+            int code = e.getValue();
+            checkCode(code);
+            // エンコーダーは char ごとに引くため、基本多言語面に限る (追加面の文字は GaijiTable)。
+            if (cp > Character.MAX_VALUE || Character.isSurrogate((char) cp) || cp == Windows31jCodec.UNMAPPABLE) {
+                throw new IllegalArgumentException("encode: " + toString(code, cp));
+            }
+            codes.put(cp, code);
+        }
+        int[] cps = codes.keySet().stream().mapToInt(Integer::intValue).toArray();
+        int[] values = codes.values().stream().mapToInt(Integer::intValue).toArray();
+        encodeTrie = codes.isEmpty()
+                ? Windows31jCodec.ENCODE_TRIE : Windows31jCodec.ENCODE_TRIE.withValues(cps, values);
+    }
+
+    // 1バイト文字 (2バイト文字の1バイト目以外) または 2バイト文字。
+    static void checkCode(int code) {
+        boolean valid;
+        if (code < 0x100) {
+            valid = !Windows31jCodec.isLead(code);
+        } else {
+            int c2 = code & 0xFF;
+            valid = code < 0x10000 && Windows31jCodec.isLead(code >> 8)
+                    && 0x40 <= c2 && c2 <= 0xFC && c2 != 0x7F;
+        }
+        if (!valid) {
+            throw new IllegalArgumentException(String.format("code: %X", code));
+        }
+    }
+
+    static String toString(int code, int cp) {
+        return String.format("%X U+%04X", code, cp);
+    }
+
+    // "8160 U+301C" はデコードとエンコード、"U+00AC 81CA" はエンコードのみ。
+    static MappingProfile parse(List<String> lines) {
+        Pattern decode = Pattern.compile(" *([0-9A-Fa-f]{2}|[0-9A-Fa-f]{4}) +U\\+([0-9A-Fa-f]+) *(?:#.*)?");
+        Pattern encode = Pattern.compile(" *U\\+([0-9A-Fa-f]+) +([0-9A-Fa-f]{2}|[0-9A-Fa-f]{4}) *(?:#.*)?");
+        Map<Integer, Integer> decodes = new LinkedHashMap<>();
+        Map<Integer, Integer> encodes = new LinkedHashMap<>();
+        for (String line : lines) {
+            Matcher m;
+            if ((m = decode.matcher(line)).matches()) {
+                decodes.put(Integer.parseInt(m.group(1), 16), Integer.parseInt(m.group(2), 16));
+            } else if ((m = encode.matcher(line)).matches()) {
+                encodes.put(Integer.parseInt(m.group(1), 16), Integer.parseInt(m.group(2), 16));
+            } else if (!line.isBlank() && !line.trim().startsWith("#")) {
+                throw new IllegalArgumentException("line: " + line);
+            }
+        }
+        return new MappingProfile(decodes, encodes);
+    }
+
+    static MappingProfile load(Path path) throws IOException {
+        return parse(Files.readAllLines(path, UTF_8));
+    }
+
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        MappingProfile profile = load(Paths.get(args.length == 0 ? "mapping.txt" : args[0]));
+        long elapsed = System.nanoTime() - start;
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        out.println("#");
+        out.println("# マッピングプロファイル (JDK との違い)");
+        out.println("#");
+        out.println();
+        out.println("W31J JDK    プロファイル");
+        out.println("---- ------ ------");
+        for (int code : profile.decodes.keySet()) {
+            out.printf("%-4X %s %s%n", code, toCharString(Windows31jCodec.DECODE_TABLE[code]),
+                    toCharString(profile.decodeTable[code]));
+        }
+        out.println();
+        out.println("文字   JDK  プロファイル");
+        out.println("------ ---- ----");
+        Set<Integer> cps = new TreeSet<>(profile.encodes.keySet());
+        for (int cp : profile.decodes.values()) {
+            cps.add(cp);
+        }
+        for (int cp : cps) {
+            out.printf("%s %-4s %X%n", toCharString(cp),
+                    toCodeString(Windows31jCodec.ENCODE_TRIE.get(cp)), profile.encodeTrie.get(cp));
+        }
+        out.println();
+        out.printf("組み込み: %.1f ms%n", elapsed / 1e6);
+    }
+
+    static String toCharString(int cp) {
+        return String.format("U+%04X", cp);
+    }
+
+    static String toCodeString(int code) {
+        return (code == Windows31jCodec.UNMAPPABLE) ? "-" : String.format("%X", code);
+    }
+
+}
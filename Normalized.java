@@ -368,7 +368,7 @@ class Normalized {
             if (0x20 <= c && c != 0x7F) {
                 append(sb, "[%s]", ss);
             }
-            byte[] bs2 = nfc.getBytes(SHIFT_JIS);
+            byte[] bs2 = Codecs.encode(nfc, SHIFT_JIS);
             if (!Arrays.equals(bs, bs2)) {
                 append(sb, " => %s", toHexString(bs2));
                 if (!ss.equals(nfc)) {
@@ -396,7 +396,7 @@ class Normalized {
             append(sb, "%-16s ", toHexString(normalize(ss, NFKC)));
             append(sb, "%-16s ", toHexString(normalize(ss, NFKD)));
             append(sb, "[%s]", ss);
-            byte[] bs2 = nfc.getBytes(SHIFT_JIS);
+            byte[] bs2 = Codecs.encode(nfc, SHIFT_JIS);
             if (!Arrays.equals(bs, bs2)) {
                 append(sb, " => %s", toHexString(bs2));
                 if (!ss.equals(nfc)) {
@@ -405,7 +405,7 @@ class Normalized {
             } else {
                 append(sb, " -> %s (SJIS)", toHexString(bs2));
             }
-            byte[] bw2 = nfc.getBytes(WINDOWS_31J);
+            byte[] bw2 = Codecs.encode(nfc, WINDOWS_31J);
             if (!Arrays.equals(bs, bw2)) {
                 append(sb, " -> %s (W31J)", toHexString(bw2));
             }
@@ -434,14 +434,14 @@ class Normalized {
             append(sb, "%-16s ", toHexString(normalize(ss, NFKC)));
             append(sb, "%-16s ", toHexString(normalize(ss, NFKD)));
             append(sb, "[%s]", ss);
-            byte[] bs2 = nfc.getBytes(SHIFT_JIS);
+            byte[] bs2 = Codecs.encode(nfc, SHIFT_JIS);
             if (!Arrays.equals(bs, bs2)) {
                 append(sb, " => %s", toHexString(bs2));
                 if (!ss.equals(nfc)) {
                     append(sb, " (NFC) [%s]", nfc);
                 }
             } else {
-                byte[] bw2 = nfc.getBytes(WINDOWS_31J);
+                byte[] bw2 = Codecs.encode(nfc, WINDOWS_31J);
                 if (!Arrays.equals(bs, bw2) || showSjis) {
                     append(sb, " -> %s (W31J)", toHexString(bw2));
                 }
@@ -471,14 +471,14 @@ class Normalized {
             append(sb, "%-16s ", toHexString(normalize(sw, NFKC)));
             append(sb, "%-16s ", toHexString(normalize(sw, NFKD)));
             append(sb, "[%s]", sw);
-            byte[] bw2 = nfc.getBytes(WINDOWS_31J);
+            byte[] bw2 = Codecs.encode(nfc, WINDOWS_31J);
             if (!Arrays.equals(bs, bw2)) {
                 append(sb, " => %s", toHexString(bw2));
                 if (!sw.equals(nfc)) {
                     append(sb, " (NFC) [%s]", nfc);
                 }
             } else {
-                byte[] bs2 = nfc.getBytes(SHIFT_JISX0213);
+                byte[] bs2 = Codecs.encode(nfc, SHIFT_JISX0213);
                 if (!Arrays.equals(bs, bs2) || showSjis) {
                     append(sb, " -> %s (SJIS0213)", toHexString(bs2));
                 }
@@ -523,14 +523,14 @@ class Normalized {
         append(sb, "%-16s ", toHexString(normalize(sx, NFKC)));
         append(sb, "%-16s ", toHexString(normalize(sx, NFKD)));
         append(sb, "[%s]", sx);
-        byte[] bx2 = nfc.getBytes(SHIFT_JISX0213);
+        byte[] bx2 = Codecs.encode(nfc, SHIFT_JISX0213);
         if (!Arrays.equals(bs, bx2)) {
             append(sb, " => %s", toHexString(bx2));
             if (!sx.equals(nfc)) {
                 append(sb, " (NFC) [%s]", nfc);
             }
         } else {
-            byte[] bw2 = nfc.getBytes(WINDOWS_31J);
+            byte[] bw2 = Codecs.encode(nfc, WINDOWS_31J);
             if (!Arrays.equals(bs, bw2)) {
                 append(sb, " -> %s (W31J)", toHexString(bw2));
             }
@@ -590,7 +590,7 @@ class Normalized {
     }
 
     static String toString(byte[] bytes, Charset encoding) {
-        return new String(bytes, encoding);
+        return Codecs.decode(bytes, encoding);
     }
 
     static String toHexString(byte[] bytes) {
@@ -0,0 +1,128 @@
+/*
+ * TableGenerator.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.zip.*;
+
+// 文字コード表を前もって作り、圧縮したリソースと文字列定数のクラスに出力する。
+// 実行時は JDK の文字コードと正規化を使わずに表を読み込める (AppCDS のアーカイブにも入る)。
+class TableGenerator {
+
+    static final String RESOURCE = "chartable.bin.gz";
+    static final String CLASS_NAME = "CharTableData";
+
+    // 文字列定数1つの文字数 (定数プールの上限 65535 バイトに収まる長さ)。
+    static final int CHUNK = 30000;
+
+    public static void main(String[] args) throws IOException {
+        String resource = RESOURCE;
+        String source = CLASS_NAME + ".java";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("-resource".equals(args[i])) {
+                resource = args[i + 1];
+            } else if ("-class".equals(args[i])) {
+                source = args[i + 1];
+            } else {
+                throw new IllegalArgumentException("option: " + args[i]);
+            }
+        }
+
+        CharTable table = CharTable.build(new Charsets(new String[0]));
+        byte[] data = MappedCharTable.toByteArray(table);
+        byte[] compressed = compress(data);
+        Files.write(Paths.get(resource), compressed);
+        Files.write(Paths.get(source), toSource(compressed).getBytes(UTF_8));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        out.printf("表:         %d バイト%n", data.length);
+        out.printf("%-11s %d バイト%n", resource + ":", compressed.length);
+        out.printf("%-11s %d 文字列%n", source + ":", (compressed.length + CHUNK - 1) / CHUNK);
+    }
+
+    static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] decompress(byte[] compressed) throws IOException {
+        try (GZIPInputStream gz = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gz.readAllBytes();
+        }
+    }
+
+    // 1バイトを1文字 (ISO-8859-1) とした文字列定数の配列。
+    static String toSource(byte[] compressed) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("/*\n");
+        sb.append(" * ").append(CLASS_NAME).append(".java\n");
+        sb.append(" *\n");
+        sb.append(" * TableGenerator が生成 (編集しないこと)。\n");
+        sb.append(" */\n");
+        sb.append("class ").append(CLASS_NAME).append(" {\n");
+        sb.append("\n");
+        sb.append("    // ").append(RESOURCE).append(" (1バイト1文字)。\n");
+        sb.append("    static final String[] DATA = {\n");
+        for (int start = 0; start < compressed.length; start += CHUNK) {
+            int end = Math.min(start + CHUNK, compressed.length);
+            sb.append("        \"");
+            for (int i = start; i < end; ++i) {
+                int b = compressed[i] & 0xFF;
+                if (b == '"' || b == '\\') {
+                    sb.append('\\').append((char) b);
+                } else if (0x20 <= b && b < 0x7F) {
+                    sb.append((char) b);
+                } else {
+                    // 8進数3桁 (続く数字と区別する)。
+                    sb.append(String.format("\\%03o", b));
+                }
+            }
+            sb.append("\"");
+            sb.append((end < compressed.length) ? ",\n" : "\n");
+        }
+        sb.append("    };\n");
+        sb.append("\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    // 生成したクラス、リソースの順に探す (どちらもなければ null)。
+    static CharTable read() {
+        try {
+            byte[] compressed = generatedData();
+            if (compressed == null) {
+                try (InputStream in = TableGenerator.class.getResourceAsStream("/" + RESOURCE)) {
+                    if (in == null) {
+                        return null;
+                    }
+                    compressed = in.readAllBytes();
+                }
+            }
+            return new MappedCharTable(ByteBuffer.wrap(decompress(compressed))).toCharTable();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] generatedData() {
+        String[] data;
+        try {
+            data = (String[]) Class.forName(CLASS_NAME).getDeclaredField("DATA").get(null);
+        } catch (ReflectiveOperationException e) {
+            // 生成していない。
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String s : data) {
+            out.writeBytes(s.getBytes(ISO_8859_1));
+        }
+        return out.toByteArray();
+    }
+
+}
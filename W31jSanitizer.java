@@ -0,0 +1,259 @@
+/*
+ * W31jSanitizer.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import static java.text.Normalizer.*;
+import static java.text.Normalizer.Form.*;
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+class W31jSanitizer {
+
+    // 置き換え方法。
+    // 置き換えなし (エンコード可)。
+    static final int NONE = 0;
+    // 異体字 (variants.txt)。
+    static final int VARIANT = 1;
+    // NFKC (互換文字)。
+    static final int NFKC_FALLBACK = 2;
+    // 固定の文字。
+    static final int MARKER = 3;
+
+    static final String[] POLICY_NAMES = {"-", "異体字", "NFKC", "代替文字"};
+
+    // ゲタ記号。
+    static final char GETA = '\u3013';
+
+    final int[] policies;
+    final char marker;
+
+    // 基本多言語面の置き換え先と置き換え方法。
+    final char[] bmpChars = new char[0x10000];
+    final byte[] bmpPolicies = new byte[0x10000];
+
+    // 追加面 (コードポイントの昇順) の置き換え先と置き換え方法。
+    final int[] supplementaryCps;
+    final char[] supplementaryChars;
+    final byte[] supplementaryPolicies;
+
+    W31jSanitizer() {
+        this(new int[] {VARIANT, NFKC_FALLBACK}, GETA);
+    }
+
+    // policies の順に置き換えを試し、どれも使えなければ marker に置き換える。
+    W31jSanitizer(int[] policies, char marker) {
+        for (int policy : policies) {
+            if (policy != VARIANT && policy != NFKC_FALLBACK) {
+                throw new IllegalArgumentException("policy: " + policy);
+            }
+        }
+        if (!encodable(String.valueOf(marker))) {
+            throw new IllegalArgumentException("marker: " + Integer.toHexString(marker));
+        }
+        this.policies = policies.clone();
+        this.marker = marker;
+
+        for (int c = 0x0000; c <= 0xFFFF; ++c) {
+            if (Windows31jCodec.encodable((char) c)) {
+                continue;
+            }
+            int replacement = NONE;
+            if (!Character.isSurrogate((char) c)) {
+                replacement = replacement(String.valueOf((char) c));
+            }
+            if (replacement == NONE) {
+                bmpChars[c] = marker;
+                bmpPolicies[c] = MARKER;
+            } else {
+                bmpChars[c] = (char) replacement;
+                bmpPolicies[c] = (byte) (replacement >>> 24);
+            }
+        }
+
+        TreeMap<Integer, Integer> supplementary = new TreeMap<>();
+        for (int cp = 0x10000; cp <= Character.MAX_CODE_POINT; ++cp) {
+            if (!Character.isDefined(cp)) {
+                continue;
+            }
+            int replacement = replacement(new String(new int[] {cp}, 0, 1));
+            if (replacement != NONE) {
+                supplementary.put(cp, replacement);
+            }
+        }
+        for (String s : Charsets.variantKeys()) {
+            int cp = s.codePointAt(0);
+            if (Character.isSupplementaryCodePoint(cp) && Character.charCount(cp) == s.length()
+                    && !supplementary.containsKey(cp)) {
+                int replacement = replacement(s);
+                if (replacement != NONE) {
+                    supplementary.put(cp, replacement);
+                }
+            }
+        }
+        this.supplementaryCps = new int[supplementary.size()];
+        this.supplementaryChars = new char[supplementary.size()];
+        this.supplementaryPolicies = new byte[supplementary.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> e : supplementary.entrySet()) {
+            int replacement = e.getValue();
+            supplementaryCps[i] = e.getKey();
+            supplementaryPolicies[i] = (byte) (replacement >>> 24);
+            supplementaryChars[i] = (char) replacement;
+            ++i;
+        }
+    }
+
+    // s の置き換え先 (置き換え方法 << 24 | 文字、なしは NONE)。
+    // その場で置き換えるため、置き換え先はエンコードできる1文字に限る。
+    int replacement(String s) {
+        for (int policy : policies) {
+            String r = null;
+            if (policy == VARIANT) {
+                String[] variant = Charsets.variant(s);
+                if (variant != null) {
+                    r = variant[0];
+                }
+            } else if (policy == NFKC_FALLBACK) {
+                r = normalize(s, NFKC);
+            }
+            if (r != null && !r.equals(s) && r.length() == 1 && encodable(r)) {
+                return policy << 24 | r.charAt(0);
+            }
+        }
+        return NONE;
+    }
+
+    static boolean encodable(String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            if (!Windows31jCodec.encodable(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        W31jSanitizer sanitizer = new W31jSanitizer();
+        Report report = new Report();
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        CharBuffer buf = CharBuffer.allocate(256);
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            ++lineNumber;
+            if (buf.capacity() < line.length()) {
+                buf = CharBuffer.allocate(line.length());
+            }
+            buf.clear();
+            buf.put(line).flip();
+            report.clear();
+            sanitizer.sanitize(buf, report);
+            out.println(buf);
+            for (int i = 0; i < report.size(); ++i) {
+                System.err.printf("%d:%d U+%04X -> U+%04X (%s)%n", lineNumber, report.offsets[i] + 1,
+                        report.codePoints[i], (int) report.replacements[i],
+                        POLICY_NAMES[report.policies[i]]);
+            }
+        }
+    }
+
+    // buf の position〜limit をその場で置き換え、limit を置き換え後の終端にする。
+    // 置き換えた文字数を返す。
+    int sanitize(CharBuffer buf, Report report) {
+        int start = buf.position();
+        int end = buf.limit();
+        int w = start;
+        int n = 0;
+        for (int r = start; r < end; ++r) {
+            char c = buf.get(r);
+            if (Windows31jCodec.encodable(c)) {
+                buf.put(w++, c);
+                continue;
+            }
+            int cp = c;
+            char replacement = bmpChars[c];
+            int policy = bmpPolicies[c];
+            if (Character.isHighSurrogate(c) && r + 1 < end && Character.isLowSurrogate(buf.get(r + 1))) {
+                // サロゲートペアは1文字として置き換える。
+                cp = Character.toCodePoint(c, buf.get(r + 1));
+                int index = Arrays.binarySearch(supplementaryCps, cp);
+                if (index >= 0) {
+                    replacement = supplementaryChars[index];
+                    policy = supplementaryPolicies[index];
+                } else {
+                    replacement = marker;
+                    policy = MARKER;
+                }
+                ++r;
+            }
+            buf.put(w++, replacement);
+            if (report != null) {
+                report.add(r - start - (Character.charCount(cp) - 1), cp, replacement, policy);
+            }
+            ++n;
+        }
+        buf.limit(w);
+        return n;
+    }
+
+    // a[off]〜a[off + len - 1] をその場で置き換え、置き換え後の終了位置を返す。
+    int sanitize(char[] a, int off, int len, Report report) {
+        CharBuffer buf = CharBuffer.wrap(a, off, len);
+        sanitize(buf, report);
+        return buf.limit();
+    }
+
+    String sanitize(String s) {
+        char[] chars = s.toCharArray();
+        int n = sanitize(chars, 0, chars.length, null);
+        return new String(chars, 0, n);
+    }
+
+    // 置き換えの記録 (clear() して使い回す)。
+    static class Report {
+
+        int size;
+        // 置き換え前の位置 (UTF-16)。
+        int[] offsets = new int[16];
+        int[] codePoints = new int[16];
+        char[] replacements = new char[16];
+        byte[] policies = new byte[16];
+        // 置き換え方法ごとの件数。
+        final int[] counts = new int[POLICY_NAMES.length];
+
+        void clear() {
+            size = 0;
+            Arrays.fill(counts, 0);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(int offset, int cp, char replacement, int policy) {
+            if (offsets.length == size) {
+                int capacity = size * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                codePoints = Arrays.copyOf(codePoints, capacity);
+                replacements = Arrays.copyOf(replacements, capacity);
+                policies = Arrays.copyOf(policies, capacity);
+            }
+            offsets[size] = offset;
+            codePoints[size] = cp;
+            replacements[size] = replacement;
+            policies[size] = (byte) policy;
+            ++size;
+            ++counts[policy];
+        }
+
+        int count(int policy) {
+            return counts[policy];
+        }
+
+    }
+
+}
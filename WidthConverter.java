@@ -0,0 +1,254 @@
+/*
+ * WidthConverter.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import static java.nio.charset.StandardCharsets.*;
+import static java.text.Normalizer.*;
+import static java.text.Normalizer.Form.*;
+import java.io.*;
+import java.nio.*;
+
+class WidthConverter {
+
+    // 変換対象。
+    // ASCII (U+0021〜U+007E ⇔ U+FF01〜U+FF5E)
+    static final int ASCII = 1;
+    // JIS X 0201 片仮名 (U+FF61〜U+FF9F ⇔ 全角)
+    static final int KANA = 2;
+    // 空白 (U+0020 ⇔ U+3000)
+    static final int SPACE = 4;
+    static final int ALL = ASCII | KANA | SPACE;
+
+    // 半角・全角の差 (ASCII)。
+    static final int ASCII_OFFSET = 0xFF01 - 0x21;
+
+    // JIS X 0201 片仮名。
+    static final char MIN_HALF_KANA = '\uFF61';
+    static final char MAX_HALF_KANA = '\uFF9F';
+    // 半角濁点・半濁点。
+    static final char HALF_VOICED = '\uFF9E';
+    static final char HALF_SEMI_VOICED = '\uFF9F';
+
+    // 全角片仮名等 (U+3000〜U+30FF)。
+    static final char MIN_FULL_KANA = '\u3000';
+    static final char MAX_FULL_KANA = '\u30FF';
+
+    static final char NONE = '\u0000';
+
+    // 半角片仮名 → 全角。
+    static final char[] KANA_TO_FULL = new char[MAX_HALF_KANA - MIN_HALF_KANA + 1];
+    // 半角片仮名 + 濁点 → 全角 (合成できない場合は NONE)。
+    static final char[] KANA_TO_VOICED = new char[KANA_TO_FULL.length];
+    // 半角片仮名 + 半濁点 → 全角 (合成できない場合は NONE)。
+    static final char[] KANA_TO_SEMI_VOICED = new char[KANA_TO_FULL.length];
+    // 全角 → 半角片仮名 (2文字目は上位16ビット、変換なしは 0)。
+    static final int[] KANA_TO_HALF = new int[MAX_FULL_KANA - MIN_FULL_KANA + 1];
+    static {
+        // NFKC の結果から表を作る。
+        for (char c = MIN_HALF_KANA; c <= MAX_HALF_KANA; ++c) {
+            int i = c - MIN_HALF_KANA;
+            char full = normalize(String.valueOf(c), NFKC).charAt(0);
+            KANA_TO_FULL[i] = full;
+            KANA_TO_VOICED[i] = compose(c, HALF_VOICED);
+            KANA_TO_SEMI_VOICED[i] = compose(c, HALF_SEMI_VOICED);
+            putHalf(full, c, NONE);
+        }
+        // 単独の濁点・半濁点 (結合文字ではない方)。
+        KANA_TO_FULL[HALF_VOICED - MIN_HALF_KANA] = '\u309B';
+        KANA_TO_FULL[HALF_SEMI_VOICED - MIN_HALF_KANA] = '\u309C';
+        putHalf('\u309B', HALF_VOICED, NONE);
+        putHalf('\u309C', HALF_SEMI_VOICED, NONE);
+        for (char c = MIN_HALF_KANA; c <= MAX_HALF_KANA; ++c) {
+            int i = c - MIN_HALF_KANA;
+            if (KANA_TO_VOICED[i] != NONE) {
+                putHalf(KANA_TO_VOICED[i], c, HALF_VOICED);
+            }
+            if (KANA_TO_SEMI_VOICED[i] != NONE) {
+                putHalf(KANA_TO_SEMI_VOICED[i], c, HALF_SEMI_VOICED);
+            }
+        }
+    }
+
+    static char compose(char c, char mark) {
+        String s = normalize(new String(new char[] {c, mark}), NFKC);
+        return (s.length() == 1) ? s.charAt(0) : NONE;
+    }
+
+    static void putHalf(char full, char c1, char c2) {
+        if (full < MIN_FULL_KANA || MAX_FULL_KANA < full) {
+            return;
+        }
+        KANA_TO_HALF[full - MIN_FULL_KANA] = c2 << 16 | c1;
+    }
+
+    final int targets;
+
+    WidthConverter() {
+        this(ALL);
+    }
+
+    WidthConverter(int targets) {
+        this.targets = targets;
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean half = args.length > 0 && "-half".equals(args[0]);
+        WidthConverter converter = new WidthConverter();
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, UTF_8));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        String line;
+        while ((line = in.readLine()) != null) {
+            out.println(half ? converter.toHalfwidth(line) : converter.toFullwidth(line));
+        }
+    }
+
+    boolean targets(int target) {
+        return (targets & target) != 0;
+    }
+
+    // 全角変換結果の最大長。
+    int maxFullwidthLength(int len) {
+        return len;
+    }
+
+    // 半角変換結果の最大長。
+    int maxHalfwidthLength(int len) {
+        return targets(KANA) ? len * 2 : len;
+    }
+
+    // src を全角に変換し、dst の終了位置を返す。
+    int toFullwidth(char[] src, int off, int len, char[] dst, int dpos) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            char c = src[i++];
+            if (c < 0x80) {
+                if (c == ' ') {
+                    dst[dpos++] = targets(SPACE) ? '\u3000' : c;
+                } else if (0x21 <= c && c <= 0x7E && targets(ASCII)) {
+                    dst[dpos++] = (char) (c + ASCII_OFFSET);
+                } else {
+                    dst[dpos++] = c;
+                }
+                continue;
+            }
+            int k = c - MIN_HALF_KANA;
+            if (k < 0 || KANA_TO_FULL.length <= k || !targets(KANA)) {
+                dst[dpos++] = c;
+                continue;
+            }
+            // 濁点・半濁点を合成する。
+            if (i < end) {
+                char mark = src[i];
+                char composed = (mark == HALF_VOICED) ? KANA_TO_VOICED[k]
+                        : ((mark == HALF_SEMI_VOICED) ? KANA_TO_SEMI_VOICED[k] : NONE);
+                if (composed != NONE) {
+                    dst[dpos++] = composed;
+                    ++i;
+                    continue;
+                }
+            }
+            dst[dpos++] = KANA_TO_FULL[k];
+        }
+        return dpos;
+    }
+
+    // src を半角に変換し、dst の終了位置を返す。
+    int toHalfwidth(char[] src, int off, int len, char[] dst, int dpos) {
+        int end = off + len;
+        for (int i = off; i < end; ++i) {
+            char c = src[i];
+            if (c < MIN_FULL_KANA) {
+                dst[dpos++] = c;
+            } else if (c <= MAX_FULL_KANA) {
+                int half = targets(KANA) ? KANA_TO_HALF[c - MIN_FULL_KANA] : 0;
+                if (c == '\u3000') {
+                    dst[dpos++] = targets(SPACE) ? ' ' : c;
+                } else if (half == 0) {
+                    dst[dpos++] = c;
+                } else {
+                    dst[dpos++] = (char) half;
+                    if ((half >>> 16) != NONE) {
+                        dst[dpos++] = (char) (half >>> 16);
+                    }
+                }
+            } else if ('\uFF01' <= c && c <= '\uFF5E' && targets(ASCII)) {
+                dst[dpos++] = (char) (c - ASCII_OFFSET);
+            } else {
+                dst[dpos++] = c;
+            }
+        }
+        return dpos;
+    }
+
+    // in を全角に変換して out に書き込む (in の残りは入力の終わりとみなす)。
+    void toFullwidth(CharBuffer in, CharBuffer out) {
+        convert(in, out, true);
+    }
+
+    // in を半角に変換して out に書き込む。
+    void toHalfwidth(CharBuffer in, CharBuffer out) {
+        convert(in, out, false);
+    }
+
+    void convert(CharBuffer in, CharBuffer out, boolean full) {
+        int ratio = full ? 1 : maxHalfwidthLength(1);
+        if (in.hasArray() && out.hasArray()) {
+            char[] src = in.array();
+            int off = in.arrayOffset() + in.position();
+            int len = length(in, Math.min(in.remaining(), out.remaining() / ratio), full);
+            int start = out.arrayOffset() + out.position();
+            int end = full
+                    ? toFullwidth(src, off, len, out.array(), start)
+                    : toHalfwidth(src, off, len, out.array(), start);
+            in.position(in.position() + len);
+            out.position(out.position() + (end - start));
+            return;
+        }
+        char[] src = new char[Math.min(in.remaining(), 1024) + 1];
+        char[] dst = new char[src.length * ratio];
+        while (in.hasRemaining()) {
+            int len = Math.min(Math.min(in.remaining(), src.length - 1), out.remaining() / ratio);
+            if (len == 0) {
+                break;
+            }
+            len = length(in, len, full);
+            in.get(src, 0, len);
+            int n = full ? toFullwidth(src, 0, len, dst, 0) : toHalfwidth(src, 0, len, dst, 0);
+            out.put(dst, 0, n);
+        }
+    }
+
+    // 合成できる濁点・半濁点の前では区切らない (合成すれば長さは変わらない)。
+    int length(CharBuffer in, int len, boolean full) {
+        if (!full || !targets(KANA) || len == 0 || in.remaining() <= len) {
+            return len;
+        }
+        int k = in.get(in.position() + len - 1) - MIN_HALF_KANA;
+        if (k < 0 || KANA_TO_FULL.length <= k) {
+            return len;
+        }
+        char mark = in.get(in.position() + len);
+        if ((mark == HALF_VOICED && KANA_TO_VOICED[k] != NONE)
+                || (mark == HALF_SEMI_VOICED && KANA_TO_SEMI_VOICED[k] != NONE)) {
+            return len + 1;
+        }
+        return len;
+    }
+
+    String toFullwidth(String s) {
+        char[] chars = s.toCharArray();
+        char[] dst = new char[maxFullwidthLength(chars.length)];
+        int n = toFullwidth(chars, 0, chars.length, dst, 0);
+        return new String(dst, 0, n);
+    }
+
+    String toHalfwidth(String s) {
+        char[] chars = s.toCharArray();
+        char[] dst = new char[maxHalfwidthLength(chars.length)];
+        int n = toHalfwidth(chars, 0, chars.length, dst, 0);
+        return new String(dst, 0, n);
+    }
+
+}
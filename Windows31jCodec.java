@@ -0,0 +1,323 @@
+/*
+ * Windows31jCodec.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+class Windows31jCodec {
+
+    static final Charset WINDOWS_31J = Charset.forName("Windows-31J");
+
+    // デコードできない文字。
+    static final char UNDEFINED = '\uFFFD';
+    // エンコードできない文字。
+    static final char UNMAPPABLE = '\uFFFF';
+    // エンコードできない文字の代替。
+    static final byte REPLACEMENT = 0x3F;
+
+    // Windows-31J → UTF-16 (1バイト文字は 00XX、2バイト文字は 8140〜FCFC)。
+    static final char[] DECODE_TABLE = new char[0x10000];
+    // 2バイト文字が定義されている1バイト目。
+    static final boolean[] MAPPED_LEADS = new boolean[0x100];
+    // コードポイント → Windows-31J
+    static final CodeTrie ENCODE_TRIE;
+    static {
+        Arrays.fill(DECODE_TABLE, UNDEFINED);
+
+        CharsetDecoder decoder = WINDOWS_31J.newDecoder();
+        ByteBuffer in = ByteBuffer.allocate(2);
+        CharBuffer out = CharBuffer.allocate(2);
+        for (int c1 = 0x00; c1 <= 0xFF; ++c1) {
+            if (isLead(c1)) {
+                for (int c2 = 0x40; c2 <= 0xFC; ++c2) {
+                    int word = c1 << 8 | c2;
+                    if (decode(decoder, in.clear().put((byte) c1).put((byte) c2), out)) {
+                        DECODE_TABLE[word] = out.get(0);
+                        MAPPED_LEADS[c1] = true;
+                    }
+                }
+            } else if (decode(decoder, in.clear().put((byte) c1), out)) {
+                DECODE_TABLE[c1] = out.get(0);
+            }
+        }
+
+        CodeTrie.Builder trie = new CodeTrie.Builder(UNMAPPABLE);
+        CharsetEncoder encoder = WINDOWS_31J.newEncoder();
+        CharBuffer cin = CharBuffer.allocate(1);
+        ByteBuffer bout = ByteBuffer.allocate(2);
+        for (int c = 0x0000; c <= 0xFFFF; ++c) {
+            if (Character.isSurrogate((char) c)) {
+                continue;
+            }
+            cin.clear().put((char) c).flip();
+            bout.clear();
+            encoder.reset();
+            if (encoder.encode(cin, bout, true).isUnderflow()) {
+                bout.flip();
+                trie.set(c, (bout.remaining() == 1)
+                        ? (bout.get(0) & 0xFF)
+                        : ((bout.get(0) & 0xFF) << 8 | (bout.get(1) & 0xFF)));
+            }
+        }
+        ENCODE_TRIE = trie.build();
+    }
+
+    static boolean decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out) {
+        in.flip();
+        out.clear();
+        decoder.reset();
+        return decoder.decode(in, out, true).isUnderflow() && out.position() == 1;
+    }
+
+    static boolean isLead(int c1) {
+        return (0x81 <= c1 && c1 <= 0x9F) || (0xE0 <= c1 && c1 <= 0xFC);
+    }
+
+    static boolean encodable(char c) {
+        return ENCODE_TRIE.get(c) != UNMAPPABLE;
+    }
+
+    // 2バイト目を次の文字として扱うかどうか (JDK と同じ)。
+    static boolean isMalformed(int c1, int c2) {
+        return !MAPPED_LEADS[c1] || MAPPED_LEADS[c2] || DECODE_TABLE[c2] != UNDEFINED;
+    }
+
+    final GaijiTable gaiji;
+    final MappingProfile profile;
+    final char[] decodeTable;
+    final CodeTrie encodeTrie;
+    // 変換件数 (記録しない場合は null)。
+    final CodecStats stats;
+
+    Windows31jCodec() {
+        this(null);
+    }
+
+    Windows31jCodec(GaijiTable gaiji) {
+        this(gaiji, MappingProfile.JDK);
+    }
+
+    // corrected が true の場合は notes.md の変換表で訂正する (訂正前の文字もエンコードできる)。
+    Windows31jCodec(GaijiTable gaiji, boolean corrected) {
+        this(gaiji, corrected ? MappingProfile.CORRECTED : MappingProfile.JDK);
+    }
+
+    Windows31jCodec(GaijiTable gaiji, MappingProfile profile) {
+        this(gaiji, profile, null);
+    }
+
+    Windows31jCodec(GaijiTable gaiji, MappingProfile profile, CodecStats stats) {
+        this.gaiji = gaiji;
+        this.profile = profile;
+        this.decodeTable = profile.decodeTable;
+        this.encodeTrie = profile.encodeTrie;
+        this.stats = stats;
+    }
+
+    // デコード結果の最大長。
+    int maxDecodedLength(int len) {
+        return (gaiji == null) ? len : len * (GaijiTable.MAX_CHARS / 2) + 1;
+    }
+
+    // エンコード結果の最大長。
+    int maxEncodedLength(int len) {
+        return len * 2;
+    }
+
+    // src をデコードし、dst の終了位置を返す。
+    int decode(byte[] src, int off, int len, char[] dst, int dpos) {
+        return (int) decode(src, off, len, dst, dpos, true);
+    }
+
+    // 続きがある場合 (endOfInput が false) は、末尾で切れた2バイト文字の1バイト目を残す。
+    // src の終了位置 << 32 | dst の終了位置 を返す。
+    long decode(byte[] src, int off, int len, char[] dst, int dpos, boolean endOfInput) {
+        char[] decodeTable = this.decodeTable;
+        int start = dpos;
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            int c1 = src[i++] & 0xFF;
+            if (!isLead(c1)) {
+                dst[dpos++] = decodeTable[c1];
+                if (ByteRuns.isSjisSingleByte(c1)) {
+                    // 続く1バイト文字はまとめて変換する。
+                    int run = ByteRuns.sjisSingleByteEnd(src, i, end);
+                    while (i < run) {
+                        dst[dpos++] = decodeTable[src[i++] & 0xFF];
+                    }
+                }
+                continue;
+            }
+            if (i == end) {
+                if (endOfInput) {
+                    dst[dpos++] = UNDEFINED;
+                } else {
+                    --i;
+                }
+                break;
+            }
+            int c2 = src[i] & 0xFF;
+            int word = c1 << 8 | c2;
+            if (gaiji != null && 0xF0 <= c1 && c1 <= 0xF9) {
+                int n = gaiji.decode(word, dst, dpos);
+                if (n > 0) {
+                    dpos += n;
+                    ++i;
+                    continue;
+                }
+            }
+            char c = decodeTable[word];
+            dst[dpos++] = c;
+            if (c != UNDEFINED || !isMalformed(c1, c2)) {
+                ++i;
+            }
+        }
+        if (stats != null) {
+            stats.recordDecode(dst, start, dpos);
+        }
+        return (long) i << 32 | dpos;
+    }
+
+    // src をエンコードし、dst の終了位置を返す。
+    int encode(char[] src, int off, int len, byte[] dst, int dpos) {
+        return (int) encode(src, off, len, dst, dpos, true);
+    }
+
+    // 続きがある場合 (endOfInput が false) は、次の文字と合わせてエンコードする末尾の文字を残す。
+    // 残すのは上位サロゲートと、外字の異体字シーケンスがある場合は基底文字 (IvsTable.map と同じ)。
+    // src の終了位置 << 32 | dst の終了位置 を返す。
+    long encode(char[] src, int off, int len, byte[] dst, int dpos, boolean endOfInput) {
+        int end = off + len;
+        if (!endOfInput && off < end) {
+            if (Character.isHighSurrogate(src[end - 1])) {
+                --end;
+            }
+            if (gaiji != null && gaiji.sequences.length > 0 && off < end) {
+                int cp = Character.codePointBefore(src, end, off);
+                if (!GaijiTable.isVariationSelector(cp)) {
+                    end -= Character.charCount(cp);
+                }
+            }
+        }
+        if (stats != null) {
+            return encodeCounting(src, off, end, dst, dpos);
+        }
+        int i = off;
+        while (i < end) {
+            char c = src[i];
+            if (gaiji != null) {
+                int code = gaiji.encode(src, i, end);
+                if (code >= 0) {
+                    dst[dpos++] = (byte) (code >> 8);
+                    dst[dpos++] = (byte) code;
+                    i += code >>> 16;
+                    continue;
+                }
+            }
+            ++i;
+            int code = encodeTrie.get(c);
+            if (code == UNMAPPABLE) {
+                // サロゲートペアは1文字として置き換える。
+                if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(src[i])) {
+                    ++i;
+                }
+                dst[dpos++] = REPLACEMENT;
+            } else if (code < 0x100) {
+                dst[dpos++] = (byte) code;
+            } else {
+                dst[dpos++] = (byte) (code >> 8);
+                dst[dpos++] = (byte) code;
+            }
+        }
+        return (long) i << 32 | dpos;
+    }
+
+    // encode と同じ変換をし、符号の範囲で分けた件数を局所変数で数えて最後に stats に記録する。
+    long encodeCounting(char[] src, int off, int end, byte[] dst, int dpos) {
+        int i = off;
+        int control = 0;
+        int ascii = 0;
+        int kana = 0;
+        int nonKanji = 0;
+        int level1 = 0;
+        int level2 = 0;
+        int encodeOnly = 0;
+        int userDefined = 0;
+        int replaced = 0;
+        while (i < end) {
+            char c = src[i];
+            if (gaiji != null) {
+                int code = gaiji.encode(src, i, end);
+                if (code >= 0) {
+                    dst[dpos++] = (byte) (code >> 8);
+                    dst[dpos++] = (byte) code;
+                    i += code >>> 16;
+                    // 異体字シーケンスも1文字。
+                    ++userDefined;
+                    continue;
+                }
+            }
+            ++i;
+            int code = encodeTrie.get(c);
+            if (code == UNMAPPABLE) {
+                if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(src[i])) {
+                    ++i;
+                }
+                dst[dpos++] = REPLACEMENT;
+                ++replaced;
+                continue;
+            }
+            if (code < 0x100) {
+                dst[dpos++] = (byte) code;
+            } else {
+                dst[dpos++] = (byte) (code >> 8);
+                dst[dpos++] = (byte) code;
+            }
+            if (decodeTable[code] != c) {
+                ++encodeOnly;
+            } else if (code < 0x80) {
+                if (code < 0x20 || code == 0x7F) {
+                    ++control;
+                } else {
+                    ++ascii;
+                }
+            } else if (code < 0x100) {
+                ++kana;
+            } else if (code < 0x8540) {
+                // 1〜8区。
+                ++nonKanji;
+            } else if (0x889F <= code && code < 0x989F) {
+                // 16〜47区。
+                ++level1;
+            } else if (0x989F <= code && code < 0xEB00) {
+                // 48〜84区。
+                ++level2;
+            } else if (0xF000 <= code && code < 0xFA00) {
+                ++userDefined;
+            } else {
+                // NEC 特殊文字・IBM 拡張 (まれな文字) はその場で記録する。
+                stats.recordVendor(code);
+            }
+        }
+        stats.recordEncode(control, ascii, kana, nonKanji, level1, level2, encodeOnly, userDefined, replaced);
+        return (long) i << 32 | dpos;
+    }
+
+    String decode(byte[] bytes) {
+        char[] chars = new char[maxDecodedLength(bytes.length)];
+        int n = decode(bytes, 0, bytes.length, chars, 0);
+        return new String(chars, 0, n);
+    }
+
+    byte[] encode(String s) {
+        char[] chars = s.toCharArray();
+        byte[] bytes = new byte[maxEncodedLength(chars.length)];
+        int n = encode(chars, 0, chars.length, bytes, 0);
+        return Arrays.copyOf(bytes, n);
+    }
+
+}
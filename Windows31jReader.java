@@ -0,0 +1,128 @@
+/*
+ * Windows31jReader.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import java.io.*;
+import java.util.*;
+
+// Windows31jCodec で読み込む Reader (InputStreamReader の代わり)。
+class Windows31jReader extends Reader {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    final InputStream in;
+    final Windows31jCodec codec;
+
+    // 読み込んでまだデコードしていないバイト。
+    final byte[] bytes;
+    int bytePos;
+    int byteEnd;
+    boolean eof;
+
+    // デコードしてまだ返していない文字 (要求された長さが短い場合のみ使う)。
+    final char[] chars;
+    int charPos;
+    int charEnd;
+
+    Windows31jReader(InputStream in) {
+        this(in, new Windows31jCodec());
+    }
+
+    Windows31jReader(InputStream in, Windows31jCodec codec) {
+        this(in, codec, BUFFER_SIZE);
+    }
+
+    Windows31jReader(InputStream in, Windows31jCodec codec, int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("size: " + size);
+        }
+        this.in = Objects.requireNonNull(in);
+        this.codec = codec;
+        this.bytes = new byte[size];
+        this.chars = new char[codec.maxDecodedLength(size)];
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, cbuf.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (charPos < charEnd) {
+            int n = Math.min(len, charEnd - charPos);
+            System.arraycopy(chars, charPos, cbuf, off, n);
+            charPos += n;
+            return n;
+        }
+        while (true) {
+            if (bytePos == byteEnd || !eof && byteEnd - bytePos == 1) {
+                fill();
+            }
+            int available = byteEnd - bytePos;
+            if (available == 0) {
+                return -1;
+            }
+            int n = Math.min(available, len);
+            if (codec.maxDecodedLength(n) <= len && (n == available || n >= 2)) {
+                // cbuf に直接デコードする。
+                int m = decode(n, cbuf, off);
+                if (m > 0) {
+                    return m;
+                }
+            } else {
+                charPos = 0;
+                charEnd = decode(available, chars, 0);
+                if (charEnd > 0) {
+                    n = Math.min(len, charEnd);
+                    System.arraycopy(chars, 0, cbuf, off, n);
+                    charPos = n;
+                    return n;
+                }
+            }
+            // 2バイト文字の1バイト目だけが残っている。
+            fill();
+        }
+    }
+
+    // bytes の bytePos から n バイトをデコードし、文字数を返す。
+    int decode(int n, char[] dst, int dpos) {
+        boolean endOfInput = eof && bytePos + n == byteEnd;
+        long result = codec.decode(bytes, bytePos, n, dst, dpos, endOfInput);
+        bytePos = (int) (result >>> 32);
+        return (int) result - dpos;
+    }
+
+    // 残りのバイトを先頭に寄せて読み足す。
+    void fill() throws IOException {
+        if (eof) {
+            return;
+        }
+        int rest = byteEnd - bytePos;
+        System.arraycopy(bytes, bytePos, bytes, 0, rest);
+        bytePos = 0;
+        byteEnd = rest;
+        while (byteEnd < bytes.length) {
+            int n = in.read(bytes, byteEnd, bytes.length - byteEnd);
+            if (n < 0) {
+                eof = true;
+                break;
+            }
+            byteEnd += n;
+            if (n > 0 && byteEnd - bytePos >= 2) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return charPos < charEnd || bytePos < byteEnd || in.available() > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+}
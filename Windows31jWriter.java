@@ -0,0 +1,215 @@
+/*
+ * Windows31jWriter.java
+ *
+ * https://github.com/glad2121/charsets
+ */
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Windows31jCodec で書き込む Writer (OutputStreamWriter の代わり)。
+class Windows31jWriter extends Writer {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    // write(String) で文字列を取り出す長さ。
+    static final int CHAR_BUFFER_SIZE = 1024;
+    // 保留する文字と、後ろに足す続きの数文字の長さ。
+    static final int PENDING_SIZE = GaijiTable.MAX_CHARS * 2;
+
+    final OutputStream out;
+    final Windows31jCodec codec;
+
+    // エンコードしてまだ書き込んでいないバイト。
+    final byte[] bytes;
+    int byteEnd;
+
+    // write(String)・write(int) で使い回す配列。
+    final char[] chars = new char[CHAR_BUFFER_SIZE];
+
+    // 次の書き込みと合わせてエンコードする末尾の文字 (pending[0]〜pending[pendingLength - 1])。
+    // 上位サロゲートと、外字の異体字シーケンスがある場合は基底文字 (最大3文字)。
+    final char[] pending = new char[PENDING_SIZE];
+    int pendingLength;
+
+    boolean closed;
+
+    Windows31jWriter(OutputStream out) {
+        this(out, new Windows31jCodec());
+    }
+
+    Windows31jWriter(OutputStream out, Windows31jCodec codec) {
+        this(out, codec, BUFFER_SIZE);
+    }
+
+    Windows31jWriter(OutputStream out, Windows31jCodec codec, int size) {
+        if (codec.maxEncodedLength(PENDING_SIZE) > size) {
+            throw new IllegalArgumentException("size: " + size);
+        }
+        this.out = Objects.requireNonNull(out);
+        this.codec = codec;
+        this.bytes = new byte[size];
+    }
+
+    // 外字の異体字シーケンスを書き込みの区切り・配列の区切りで分けても、
+    // まとめてエンコードした結果と同じになることを確かめる。
+    public static void main(String[] args) throws IOException {
+        Windows31jCodec codec = new Windows31jCodec(GaijiTable.load(Paths.get(args.length == 0 ? "gaiji.txt" : args[0])));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        // 葛 + U+E0100、辻 + U+E0100、𠮟、私用領域、異体字セレクタのない 葛、①
+        String[] parts = {
+            "a", "\u845B", "\uDB40\uDD00", "\u8FBB", "\uD842\uDF9F", "\uE000", "\u2460", "\uFE00"
+        };
+        Random random = new Random(1);
+        int errors = 0;
+        int count = 0;
+        for (int size : new int[] {codec.maxEncodedLength(PENDING_SIZE), BUFFER_SIZE}) {
+            // write(String) の配列の区切り (CHAR_BUFFER_SIZE) をまたぐ。
+            for (int pad = CHAR_BUFFER_SIZE - 4; pad <= CHAR_BUFFER_SIZE; ++pad) {
+                String s = "a".repeat(pad) + "\u845B\uDB40\uDD00\u8FBB\uDB40\uDD00";
+                errors += check(codec, size, s, new int[] {s.length()}) ? 0 : 1;
+                ++count;
+            }
+            // 書き込みの区切りをまたぐ。
+            for (int n = 0; n < 10000; ++n) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = random.nextInt(12); i >= 0; --i) {
+                    sb.append(parts[random.nextInt(parts.length)]);
+                }
+                String s = sb.toString();
+                int[] splits = new int[random.nextInt(4) + 1];
+                for (int i = 0; i < splits.length - 1; ++i) {
+                    splits[i] = random.nextInt(s.length() + 1);
+                }
+                splits[splits.length - 1] = s.length();
+                Arrays.sort(splits);
+                errors += check(codec, size, s, splits) ? 0 : 1;
+                ++count;
+            }
+        }
+        out.printf("分割書き込み %d 件 不一致 %d 件%n", count, errors);
+    }
+
+    // s を splits[i] の位置で分けて書き込み (偶数番目は write(String)、奇数番目は write(char[]))、
+    // codec.encode(s) と比べる。
+    static boolean check(Windows31jCodec codec, int size, String s, int[] splits) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Windows31jWriter writer = new Windows31jWriter(bytes, codec, size)) {
+            int start = 0;
+            for (int i = 0; i < splits.length; ++i) {
+                if (i % 2 == 0) {
+                    writer.write(s, start, splits[i] - start);
+                } else {
+                    writer.write(s.substring(start, splits[i]).toCharArray());
+                }
+                start = splits[i];
+            }
+        }
+        return Arrays.equals(bytes.toByteArray(), codec.encode(s));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, cbuf.length);
+        ensureOpen();
+        if (len == 0) {
+            return;
+        }
+        int end = off + len;
+        if (pendingLength > 0) {
+            // 保留した文字に続きの数文字を足してエンコードし、残りは cbuf から続ける。
+            int n = Math.min(len, GaijiTable.MAX_CHARS);
+            System.arraycopy(cbuf, off, pending, pendingLength, n);
+            int total = pendingLength + n;
+            int i = encode(pending, 0, total, false);
+            if (i < pendingLength) {
+                // 続きが短く、まだエンコードできない (cbuf はすべて pending に入った)。
+                System.arraycopy(pending, i, pending, 0, total - i);
+                pendingLength = total - i;
+                return;
+            }
+            off += i - pendingLength;
+            pendingLength = 0;
+        }
+        // バッファーに収まる長さずつエンコードする (区切りで残った文字は次と合わせる)。
+        int chunk = bytes.length / codec.maxEncodedLength(1);
+        while (off < end) {
+            int n = Math.min(chunk, end - off);
+            int i = encode(cbuf, off, n, false);
+            if (off + n == end) {
+                // 末尾の残りは次の書き込みまで保留する。
+                pendingLength = end - i;
+                System.arraycopy(cbuf, i, pending, 0, pendingLength);
+                break;
+            }
+            off = i;
+        }
+    }
+
+    // エンコードし、cbuf の終了位置を返す。
+    int encode(char[] cbuf, int off, int len, boolean endOfInput) throws IOException {
+        if (bytes.length - byteEnd < codec.maxEncodedLength(len)) {
+            flushBuffer();
+        }
+        long result = codec.encode(cbuf, off, len, bytes, byteEnd, endOfInput);
+        byteEnd = (int) result;
+        return (int) (result >>> 32);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, str.length());
+        int end = off + len;
+        while (off < end) {
+            int n = Math.min(chars.length, end - off);
+            str.getChars(off, off + n, chars, 0);
+            write(chars, 0, n);
+            off += n;
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        chars[0] = (char) c;
+        write(chars, 0, 1);
+    }
+
+    void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("closed");
+        }
+    }
+
+    void flushBuffer() throws IOException {
+        if (byteEnd > 0) {
+            out.write(bytes, 0, byteEnd);
+            byteEnd = 0;
+        }
+    }
+
+    // 保留した文字は残したまま (次の書き込みと合わせるか、close でエンコードする)。
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        out.flush();
+    }
+
+    // 2回目以降は何もしない。
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (pendingLength > 0) {
+            encode(pending, 0, pendingLength, true);
+            pendingLength = 0;
+        }
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+}